@@ -0,0 +1,68 @@
+package com.cloud.webapp.benchmark;
+
+import com.cloud.webapp.service.image.ImageResizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Profile picture variant cost for a 12 MP JPEG: a full decode before resizing (what ImageIO.read does) versus the
+ * subsampled decode ImageVariantService uses, plus resize + encode alone. gc.alloc.rate.norm shows the heap each
+ * approach needs per picture.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ImageResizeBenchmark {
+
+    private static final long MAX_SOURCE_PIXELS = 40_000_000L;
+
+    @Param({"64", "256"})
+    public int size;
+
+    private byte[] original;
+    private BufferedImage decoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        BufferedImage image = new BufferedImage(4000, 3000, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < image.getWidth(); x++) {
+            for (int y = 0; y < image.getHeight(); y++) {
+                image.setRGB(x, y, (x * 7 % 256) << 16 | (y * 3 % 256) << 8 | (x + y) % 256);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpeg", out);
+        original = out.toByteArray();
+        decoded = ImageResizer.decode(new ByteArrayInputStream(original), 256, MAX_SOURCE_PIXELS);
+    }
+
+    @Benchmark
+    public byte[] fullDecodeThenResize() throws IOException {
+        BufferedImage source = ImageIO.read(new ByteArrayInputStream(original));
+        return ImageResizer.encode(ImageResizer.resize(source, size, true), "jpeg", 0.85f);
+    }
+
+    @Benchmark
+    public byte[] subsampledDecodeThenResize() throws IOException {
+        BufferedImage source = ImageResizer.decode(new ByteArrayInputStream(original), size, MAX_SOURCE_PIXELS);
+        return ImageResizer.encode(ImageResizer.resize(source, size, true), "jpeg", 0.85f);
+    }
+
+    @Benchmark
+    public byte[] resizeAndEncodeOnly() throws IOException {
+        return ImageResizer.encode(ImageResizer.resize(decoded, size, true), "jpeg", 0.85f);
+    }
+}
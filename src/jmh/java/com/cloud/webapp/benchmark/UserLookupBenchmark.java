@@ -0,0 +1,139 @@
+package com.cloud.webapp.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares findByEmail / findByVerificationToken latency on a 1M row copy of the USER table
+ * with and without the V2 lookup indexes. Needs a scratch MySQL database in BENCH_DB_URL;
+ * the seeded tables are kept between runs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UserLookupBenchmark {
+
+    private static final int ROWS = 1_000_000;
+    private static final int SEED_BATCH = 5_000;
+
+    @Param({"false", "true"})
+    public boolean indexed;
+
+    private Connection connection;
+    private PreparedStatement findByEmail;
+    private PreparedStatement findByVerificationToken;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        Properties properties = new Properties();
+        properties.setProperty("user", env("BENCH_DB_USERNAME", "root"));
+        properties.setProperty("password", env("BENCH_DB_PASSWORD", ""));
+        properties.setProperty("rewriteBatchedStatements", "true");
+        connection = DriverManager.getConnection(env("BENCH_DB_URL", "jdbc:mysql://localhost:3306/bench"), properties);
+
+        String table = indexed ? "USER_bench_indexed" : "USER_bench_plain";
+        createTable(table);
+        seed(table);
+
+        findByEmail = connection.prepareStatement("SELECT * FROM `" + table + "` WHERE email = ?");
+        findByVerificationToken = connection.prepareStatement("SELECT * FROM `" + table + "` WHERE verification_token = ?");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public void findByEmail(Blackhole blackhole) throws SQLException {
+        findByEmail.setString(1, "user" + ThreadLocalRandom.current().nextInt(ROWS) + "@bench.local");
+        consume(findByEmail, blackhole);
+    }
+
+    @Benchmark
+    public void findByVerificationToken(Blackhole blackhole) throws SQLException {
+        findByVerificationToken.setString(1, "token-" + ThreadLocalRandom.current().nextInt(ROWS));
+        consume(findByVerificationToken, blackhole);
+    }
+
+    private void consume(PreparedStatement statement, Blackhole blackhole) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                blackhole.consume(resultSet.getString("id"));
+            }
+        }
+    }
+
+    private void createTable(String table) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS `" + table + "` ("
+                    + "id CHAR(36) NOT NULL, first_name VARCHAR(255), last_name VARCHAR(255),"
+                    + " email VARCHAR(255), password VARCHAR(255), s3object_key VARCHAR(255), image_url VARCHAR(255),"
+                    + " verified BIT(1) NOT NULL, verification_token VARCHAR(255), token_expiration_time DATETIME(6),"
+                    + " account_created VARCHAR(255) NOT NULL, account_updated VARCHAR(255) NOT NULL,"
+                    + " PRIMARY KEY (id)"
+                    + (indexed ? ", UNIQUE KEY uk_user_email (email), KEY idx_user_verification_token (verification_token)" : "")
+                    + ") ENGINE = InnoDB");
+        }
+    }
+
+    private void seed(String table) throws SQLException {
+        int existing;
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM `" + table + "`")) {
+            resultSet.next();
+            existing = resultSet.getInt(1);
+        }
+        if (existing >= ROWS) {
+            return;
+        }
+
+        connection.setAutoCommit(false);
+        String sql = "INSERT INTO `" + table + "` (id, first_name, last_name, email, password, verified,"
+                + " verification_token, account_created, account_updated) VALUES (?, 'Bench', 'User', ?, ?, b'1', ?, ?, ?)";
+        try (PreparedStatement insert = connection.prepareStatement(sql)) {
+            for (int i = existing; i < ROWS; i++) {
+                insert.setString(1, UUID.randomUUID().toString());
+                insert.setString(2, "user" + i + "@bench.local");
+                insert.setString(3, "$2a$10$abcdefghijklmnopqrstuuGkaQOZ5lIIpnMGPsEoLbkPXVMSYMHS2");
+                insert.setString(4, "token-" + i);
+                insert.setString(5, "2024-01-01 00:00");
+                insert.setString(6, "2024-01-01 00:00");
+                insert.addBatch();
+                if ((i + 1) % SEED_BATCH == 0) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+}
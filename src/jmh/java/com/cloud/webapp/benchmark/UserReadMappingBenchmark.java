@@ -0,0 +1,64 @@
+package com.cloud.webapp.benchmark;
+
+import com.cloud.webapp.DTO.UserResponseDTO;
+import com.cloud.webapp.config.ModelMapperConfig;
+import com.cloud.webapp.entity.UserEntity;
+import com.cloud.webapp.mapper.mapperimpl.UserMapperImpl;
+import com.cloud.webapp.repository.projection.UserProfileView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static com.cloud.webapp.utils.helpers.generateTimeOrderedUuid;
+
+/**
+ * GET /v1/user/self mapping cost: full entity through ModelMapper (old path) versus the
+ * projection record mapped by hand (new path). Compare gc.alloc.rate.norm for bytes per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UserReadMappingBenchmark {
+
+    private UserMapperImpl userMapper;
+    private UserEntity entity;
+    private UserProfileView profile;
+
+    @Setup
+    public void setUp() {
+        userMapper = new UserMapperImpl(new ModelMapperConfig().modelMapper());
+        UUID id = generateTimeOrderedUuid();
+        entity = UserEntity.builder()
+                .id(id)
+                .first_name("Jane")
+                .last_name("Doe")
+                .email("jane.doe@example.com")
+                .password("$2a$10$abcdefghijklmnopqrstuuGkaQOZ5lIIpnMGPsEoLbkPXVMSYMHS2")
+                .verified(true)
+                .verificationToken(UUID.randomUUID().toString())
+                .s3ObjectKey(id + "/profilePic.png")
+                .imageUrl("https://bucket.s3.us-east-1.amazonaws.com/" + id + "/profilePic.png")
+                .build();
+        entity.setAccount_created(Instant.now());
+        entity.setAccount_updated(Instant.now());
+        profile = UserProfileView.from(entity);
+    }
+
+    @Benchmark
+    public UserResponseDTO entityThroughModelMapper() {
+        return userMapper.toResponseDTOfromEntity(entity);
+    }
+
+    @Benchmark
+    public UserResponseDTO projectionMappedByHand() {
+        return userMapper.toResponseDTOFromProfileView(profile);
+    }
+}
@@ -0,0 +1,20 @@
+package com.cloud.webapp.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@Data
+@NoArgsConstructor
+@Builder
+public class PresignedUploadCompleteDTO {
+
+    @Schema(description = "Object key returned with the upload URL",
+            example = "d290f1ee-6c54-4b01-90e6-d701748f0851/profilePic.png")
+    @NotBlank(message = "Object key cannot be blank")
+    private String s3ObjectKey;
+}
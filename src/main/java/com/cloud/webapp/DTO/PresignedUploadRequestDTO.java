@@ -0,0 +1,28 @@
+package com.cloud.webapp.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@Data
+@NoArgsConstructor
+@Builder
+public class PresignedUploadRequestDTO {
+
+    @Schema(description = "Name of the file to upload; its extension picks the object key", example = "me.png")
+    @NotBlank(message = "File name cannot be blank")
+    private String fileName;
+
+    @Schema(description = "Content type the client will send with the PUT", example = "image/png")
+    @NotBlank(message = "Content type cannot be blank")
+    private String contentType;
+
+    @Schema(description = "Exact size of the file in bytes", example = "204800")
+    @Positive(message = "Content length must be positive")
+    private long contentLength;
+}
@@ -0,0 +1,33 @@
+package com.cloud.webapp.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+@AllArgsConstructor
+@Data
+@NoArgsConstructor
+@Builder
+public class PresignedUploadResponseDTO {
+
+    @Schema(description = "Presigned S3 URL to PUT the file to", readOnly = true)
+    private String uploadUrl;
+
+    @Schema(description = "HTTP method to use", example = "PUT", readOnly = true)
+    private String method;
+
+    @Schema(description = "Headers that must be sent unchanged with the PUT", readOnly = true)
+    private Map<String, List<String>> headers;
+
+    @Schema(description = "Object key to pass to /v1/user/self/pic/complete once the PUT succeeds", readOnly = true)
+    private String s3ObjectKey;
+
+    @Schema(description = "When the upload URL stops working", readOnly = true)
+    private Instant expiresAt;
+}
@@ -0,0 +1,23 @@
+package com.cloud.webapp.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@Data
+@NoArgsConstructor
+@Builder
+public class TokenResponseDTO {
+
+    @Schema(description = "Signed access token to send as 'Authorization: Bearer <token>'", readOnly = true)
+    private String access_token;
+
+    @Schema(description = "Token type", example = "Bearer", readOnly = true)
+    private String token_type;
+
+    @Schema(description = "Seconds until the token expires", example = "900", readOnly = true)
+    private long expires_in;
+}
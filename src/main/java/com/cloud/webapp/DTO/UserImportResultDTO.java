@@ -0,0 +1,23 @@
+package com.cloud.webapp.DTO;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserImportResultDTO {
+
+    public enum Status { CREATED, INVALID, DUPLICATE, FAILED }
+
+    private long line;
+    private String email;
+    private Status status;
+    private String id;
+    private Object errors;
+}
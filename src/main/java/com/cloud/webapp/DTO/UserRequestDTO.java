@@ -8,6 +8,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 @AllArgsConstructor
 @Data
@@ -31,5 +32,6 @@ public class UserRequestDTO {
     @Schema(description = "Password for the user", example = "s3cr3t", writeOnly = true)
     @NotBlank(message = "Password cannot be blank")
     @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    @ToString.Exclude
     private String password;
 }
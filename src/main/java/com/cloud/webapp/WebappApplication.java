@@ -32,6 +32,9 @@ public class WebappApplication {
 		System.setProperty("DB_URL", dotenv.get("DB_URL"));
 		System.setProperty("DB_USERNAME", dotenv.get("DB_USERNAME"));
 		System.setProperty("DB_PASSWORD", dotenv.get("DB_PASSWORD"));
+		System.setProperty("DB_REPLICA_URLS", dotenv.get("DB_REPLICA_URLS", ""));
+		System.setProperty("DB_REPLICA_USERNAME", dotenv.get("DB_REPLICA_USERNAME", ""));
+		System.setProperty("DB_REPLICA_PASSWORD", dotenv.get("DB_REPLICA_PASSWORD", ""));
 		String awsAccessKey = dotenv.get("AWS_ACCESS_KEY", "");
 		String awsSecretKey = dotenv.get("AWS_SECRET_KEY", "");
 
@@ -50,9 +53,12 @@ public class WebappApplication {
 		System.setProperty("aws.secretAccessKey", awsSecretKey);
 		System.setProperty("aws.region", dotenv.get("AWS_REGION"));
 		System.setProperty("aws.bucketName", dotenv.get("AWS_BUCKET_NAME"));
+		System.setProperty("AWS_S3_ENDPOINT", dotenv.get("AWS_S3_ENDPOINT", ""));
 		System.setProperty("sendgrid.api.key", dotenv.get("SENDGRID_API_KEY"));
 		System.setProperty("sendgrid.from.email",dotenv.get("SENDGRID_FROM_EMAIL"));
 		System.setProperty("sns.topic.name", dotenv.get("SNS_TOPIC_NAME"));
+		System.setProperty("security.token.secret", dotenv.get("TOKEN_SECRET", ""));
+		System.setProperty("METRICS_SINK", dotenv.get("METRICS_SINK", "cloudwatch"));
 
 		SpringApplication.run(WebappApplication.class, args);
 	}
@@ -0,0 +1,43 @@
+package com.cloud.webapp.config;
+
+import com.cloud.webapp.datasource.StatementMetricsListener;
+import com.cloud.webapp.metrics.MetricsAggregator;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+// Wraps the application's "dataSource" bean (the routing proxy when replicas are configured) in a datasource-proxy
+@Configuration
+@ConditionalOnProperty(name = "metrics.jdbc.enabled", havingValue = "true", matchIfMissing = true)
+public class DataSourceProxyConfig {
+
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    @Bean
+    public static BeanPostProcessor dataSourceProxyPostProcessor(ObjectProvider<MetricsAggregator> metricsAggregator,
+                                                                 Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!DATA_SOURCE_BEAN.equals(beanName) || !(bean instanceof DataSource dataSource)
+                        || bean instanceof ProxyDataSource) {
+                    return bean;
+                }
+                StatementMetricsListener listener = new StatementMetricsListener(metricsAggregator.getObject(), dataSource,
+                        environment.getProperty("metrics.jdbc.slow-query-threshold-ms", Long.class, 200L),
+                        environment.getProperty("metrics.jdbc.explain-slow-queries", Boolean.class, false));
+                return ProxyDataSourceBuilder.create(dataSource)
+                        .name(beanName)
+                        .listener(listener)
+                        .build();
+            }
+        };
+    }
+}
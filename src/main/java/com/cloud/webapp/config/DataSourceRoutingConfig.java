@@ -0,0 +1,79 @@
+package com.cloud.webapp.config;
+
+import com.cloud.webapp.datasource.ReadWriteRoutingDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Only active when replica URLs are configured; otherwise Boot's single Hikari pool is used as before
+@Configuration
+@ConditionalOnExpression("!'${datasource.replicas.urls:}'.isBlank()")
+public class DataSourceRoutingConfig {
+
+    @Value("${datasource.replicas.urls}") List<String> replicaUrls;
+    @Value("${datasource.replicas.username:}") String replicaUsername;
+    @Value("${datasource.replicas.password:}") String replicaPassword;
+    @Value("${datasource.replicas.health-check-interval-ms:5000}") long healthCheckIntervalMs;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariConfig hikariConfig(DataSourceProperties properties) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(properties.determineUrl());
+        config.setUsername(properties.determineUsername());
+        config.setPassword(properties.determinePassword());
+        config.setDriverClassName(properties.determineDriverClassName());
+        return config;
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(HikariConfig hikariConfig) {
+        HikariDataSource primary = pool(hikariConfig, "primary", hikariConfig.getJdbcUrl(),
+                hikariConfig.getUsername(), hikariConfig.getPassword(), false);
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : replicaUrls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            String name = "replica-" + (replicas.size() + 1);
+            replicas.put(name, pool(hikariConfig, name, url.trim(),
+                    replicaUsername.isBlank() ? hikariConfig.getUsername() : replicaUsername,
+                    replicaPassword.isBlank() ? hikariConfig.getPassword() : replicaPassword, true));
+        }
+        return new ReadWriteRoutingDataSource(primary, replicas, healthCheckIntervalMs);
+    }
+
+    // Lazy proxy so the routing decision is made after the transaction's read-only flag is set
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    private static HikariDataSource pool(HikariConfig template, String name, String url,
+                                         String username, String password, boolean readOnly) {
+        HikariConfig config = new HikariConfig();
+        template.copyStateTo(config);
+        config.setPoolName(name);
+        config.setJdbcUrl(url);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setReadOnly(readOnly);
+        // Replicas that are down at startup must not stop the app; the health check picks them up later
+        config.setInitializationFailTimeout(readOnly ? -1 : template.getInitializationFailTimeout());
+        return new HikariDataSource(config);
+    }
+}
@@ -1,15 +1,28 @@
 package com.cloud.webapp.config;
 
+import org.modelmapper.AbstractConverter;
 import org.modelmapper.ModelMapper;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Instant;
+
+import static com.cloud.webapp.utils.helpers.formatTimestampUtil;
+
 @Configuration
 public class ModelMapperConfig {
     @Bean
     //return a new instance, whenever this bean is invoked
     //this is how we make it non singleton in nature
     public ModelMapper modelMapper() {
-        return new ModelMapper();
+        ModelMapper modelMapper = new ModelMapper();
+        //audit timestamps are Instants on the entity but keep their original string format in the API
+        modelMapper.addConverter(new AbstractConverter<Instant, String>() {
+            @Override
+            protected String convert(Instant source) {
+                return formatTimestampUtil(source);
+            }
+        });
+        return modelMapper;
     }
 }
\ No newline at end of file
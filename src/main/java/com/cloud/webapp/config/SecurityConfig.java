@@ -1,9 +1,17 @@
 package com.cloud.webapp.config;
 
+import com.cloud.webapp.security.BearerTokenAuthenticationFilter;
+import com.cloud.webapp.security.CachingAuthenticationProvider;
+import com.cloud.webapp.security.CredentialCache;
+import com.cloud.webapp.security.TokenService;
+import jakarta.servlet.DispatcherType;
 import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
@@ -12,7 +20,10 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
+import static com.cloud.webapp.service.serviceimpl.CustomUserDetailsService.ROLE_ADMIN;
+import static com.cloud.webapp.utils.constants.TOKEN_ENDPOINT;
 import static org.springframework.security.config.Customizer.withDefaults;
 
 @Configuration
@@ -21,28 +32,42 @@ import static org.springframework.security.config.Customizer.withDefaults;
 public class SecurityConfig {
 
     private final UserDetailsService userDetailsService;
+    private final TokenService tokenService;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(authorize -> authorize
+                        //Streamed responses finish on an async dispatch of an already authorized request
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/healthz/**").permitAll()
                         .requestMatchers("/cicd/**").permitAll()
                         .requestMatchers("/v3/api-docs/**").permitAll()  // Swagger API docs
                         .requestMatchers("/swagger-ui/**").permitAll()   // Swagger UI
+                        //Recordings and actuator write operations (starting JFR, changing log levels, ...) are for
+                        //verified admins only; anyone can get a plain account through POST /v1/user
+                        .requestMatchers("/actuator/jfr/**").hasRole(ROLE_ADMIN)
+                        .requestMatchers(HttpMethod.POST, "/actuator/**").hasRole(ROLE_ADMIN)
+                        .requestMatchers(HttpMethod.DELETE, "/actuator/**").hasRole(ROLE_ADMIN)
                         .requestMatchers("/actuator/**").permitAll()     // Actuator endpoints
                         .requestMatchers("/api/**").permitAll()          // Emails
                         //Create user will be public, authless
                         .requestMatchers(HttpMethod.POST, "/v1/user").permitAll()
                         //Verify user will be public, authless
                         .requestMatchers(HttpMethod.GET, "/v1/user/verify").permitAll()
+                        //Bulk import creates accounts in bulk, so only verified admins may call it.
+                        //Bearer tokens carry no authorities and are refused here as well
+                        .requestMatchers(HttpMethod.POST, "/v1/user/import").hasRole(ROLE_ADMIN)
                         //Anything with GET/PUT user will be authenticated
                         .requestMatchers("/v1/user/**").authenticated()
                         //Rest all, default will be authenticated
                         .anyRequest().authenticated()
                 )
                 .httpBasic(withDefaults())
+                //Bearer tokens are checked before Basic so token requests never hit BCrypt or the DB
+                .addFilterBefore(new BearerTokenAuthenticationFilter(tokenService, TOKEN_ENDPOINT),
+                        BasicAuthenticationFilter.class)
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS));
 
@@ -50,7 +75,15 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder,
+                                                         CredentialCache credentialCache) {
+        DaoAuthenticationProvider daoAuthenticationProvider = new DaoAuthenticationProvider(passwordEncoder);
+        daoAuthenticationProvider.setUserDetailsService(userDetailsService);
+        return new CachingAuthenticationProvider(daoAuthenticationProvider, credentialCache);
+    }
+
+    @Bean
+    public PasswordEncoder passwordEncoder(@Value("${security.bcrypt.strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 }
@@ -4,6 +4,7 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import com.cloud.webapp.health.HealthMonitor;
 import lombok.AllArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,20 +18,16 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.context.request.WebRequest;
 
-import javax.sql.DataSource;
-import java.sql.Connection;
-import java.sql.SQLException;
-
 @Tag(
         name="Health Check",
         description = "Endpoints to check health status of various services under webapp service"
 )
 @RestController
 @AllArgsConstructor
-@RequestMapping("/healthz")
+@RequestMapping({"/healthz", "/cicd"})
 public class HealthCheckController {
 
-    private final DataSource dataSource;
+    private final HealthMonitor healthMonitor;
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
     @Operation(summary = "Fetch the health",
@@ -45,8 +42,33 @@ public class HealthCheckController {
     public ResponseEntity<Void> healthCheck(
             @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) String contentLength,
             @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
-            WebRequest webRequest) throws SQLException {
-        logger.info("GET /healthz hit started");
+            WebRequest webRequest) {
+        return respond(contentLength, contentType, webRequest, healthMonitor.isReady());
+    }
+
+    @Operation(summary = "Readiness",
+            description = "503 while a critical dependency is down or the last background check is stale")
+    @GetMapping("/ready")
+    public ResponseEntity<Void> readiness(
+            @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) String contentLength,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            WebRequest webRequest) {
+        return respond(contentLength, contentType, webRequest, healthMonitor.isReady());
+    }
+
+    @Operation(summary = "Liveness",
+            description = "503 only when the process has stopped running its own health checks")
+    @GetMapping("/live")
+    public ResponseEntity<Void> liveness(
+            @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) String contentLength,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            WebRequest webRequest) {
+        return respond(contentLength, contentType, webRequest, healthMonitor.isLive());
+    }
+
+    // Answers from the monitor's cached result; probes never touch the database or AWS themselves
+    private ResponseEntity<Void> respond(String contentLength, String contentType, WebRequest webRequest, boolean healthy) {
+        logger.debug("GET /healthz hit started");
         HttpHeaders responseHeaders = new HttpHeaders();
         responseHeaders.setCacheControl("no-cache, no-store, must-revalidate");
         responseHeaders.setPragma("no-cache");
@@ -54,7 +76,6 @@ public class HealthCheckController {
         // Check if there are any query parameters
         if (!webRequest.getParameterMap().isEmpty()) {
             logger.error("Query parameters are not allowed for {} endpoint", "/healthz");
-            logger.info("GET /healthz hit completed successfully");
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .headers(responseHeaders)
                     .build();
@@ -62,7 +83,6 @@ public class HealthCheckController {
 
         if (contentLength != null && Integer.parseInt(contentLength) > 0) {
             logger.error("Payload is not allowed for {} endpoint", "/healthz");
-            logger.info("GET /healthz hit completed successfully");
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .headers(responseHeaders)
                     .build();
@@ -70,22 +90,14 @@ public class HealthCheckController {
 
         if (contentType != null && !contentType.equals(MediaType.ALL_VALUE)) {
             logger.error("Content type is not allowed for {} endpoint", "/healthz");
-            logger.info("GET /healthz hit completed successfully");
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .headers(responseHeaders)
                     .build();
         }
 
-        try (Connection connection = dataSource.getConnection()) {
-            if (connection.isValid(2)) {
-                logger.info("GET /healthz hit completed successfully, all services are healthy");
-                return ResponseEntity.status(HttpStatus.OK).headers(responseHeaders).build();
-            } else {
-                //to:do : add more checks for every service and not hardcoded.
-                logger.error("DB Service is down for {} endpoint", "/healthz");
-                logger.info("GET /healthz hit completed successfully");
-                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).headers(responseHeaders).build();
-            }
-        }
+        logger.debug("GET /healthz hit completed, healthy: {}", healthy);
+        return ResponseEntity.status(healthy ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE)
+                .headers(responseHeaders)
+                .build();
     }
 }
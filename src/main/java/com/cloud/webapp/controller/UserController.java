@@ -1,17 +1,25 @@
 package com.cloud.webapp.controller;
 
 import com.cloud.webapp.DTO.CustomUserPUTDTO;
+import com.cloud.webapp.DTO.PresignedUploadCompleteDTO;
+import com.cloud.webapp.DTO.PresignedUploadRequestDTO;
+import com.cloud.webapp.DTO.PresignedUploadResponseDTO;
+import com.cloud.webapp.DTO.TokenResponseDTO;
 import com.cloud.webapp.DTO.UserImageResponseDTO;
 import com.cloud.webapp.DTO.UserRequestDTO;
 import com.cloud.webapp.DTO.UserResponseDTO;
 import com.cloud.webapp.mapper.UserMapper;
+import com.cloud.webapp.security.TokenService;
+import com.cloud.webapp.service.UserImportService;
 import com.cloud.webapp.service.UserService;
 import com.cloud.webapp.service.aws.CloudWatchService;
+import com.cloud.webapp.service.image.ImageDiskCache;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import org.slf4j.Logger;
@@ -23,8 +31,13 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
 import static com.cloud.webapp.utils.helpers.*;
 
 @Validated
@@ -39,6 +52,8 @@ public class UserController {
     private final UserService userService;
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
     private final UserMapper userMapper;
+    private final TokenService tokenService;
+    private final UserImportService userImportService;
 
     @Operation(summary = "User Registration",
             description = "Create a user profile")
@@ -50,9 +65,9 @@ public class UserController {
     })
     @PostMapping()
     public ResponseEntity<UserResponseDTO> registerUser(@Valid @RequestBody UserRequestDTO userRequestDTO) {
-        logger.info("POST /v1/user hit started with request body {}", userRequestDTO);
+        logger.debug("POST /v1/user hit started for email {}", userRequestDTO.getEmail());
         UserResponseDTO response = userService.createUser(userRequestDTO);
-        logger.info("POST /v1/user hit completed with request body {}", userRequestDTO);
+        logger.info("POST /v1/user hit completed for user {}", response.getId());
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
@@ -60,17 +75,69 @@ public class UserController {
             description = "For a registered user, fetch the user's details")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Success - User details fetched"),
+            @ApiResponse(responseCode = "304", description = "Not Modified - ETag still matches"),
             @ApiResponse(responseCode = "401", description = "Unauthorized - Access restricted"),
             @ApiResponse(responseCode = "405", description = "Bad Request - Method Not Allowed, " +
                     "only GET/PUT are supported"),
     })
     @GetMapping("/self")
-    public ResponseEntity<UserResponseDTO> fetchUserDetails() {
-        logger.info("GET /v1/user/self hit started");
+    public ResponseEntity<UserResponseDTO> fetchUserDetails(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        logger.debug("GET /v1/user/self hit started");
         String authenticatedEmail = getAuthenticatedUserEmailHelper();
+        HttpHeaders responseHeaders = new HttpHeaders();
+        responseHeaders.setCacheControl("private, no-cache");
+        // Taken before the body: if the row changes in between, the next poll simply gets a 200 again
+        Optional<String> etag = userService.getProfileETag(authenticatedEmail);
+        if (etag.isPresent() && etagMatchesUtil(ifNoneMatch, etag.get())) {
+            logger.info("GET /v1/user/self hit completed, not modified");
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(responseHeaders).eTag(etag.get()).build();
+        }
         UserResponseDTO userResponse = userService.getUserByEmail(authenticatedEmail);
-        logger.info("GET /v1/user/self hit completed with response: {}", userResponse);
-        return ResponseEntity.ok(userResponse);
+        etag.ifPresent(responseHeaders::setETag);
+        logger.info("GET /v1/user/self hit completed for user {}", userResponse.getId());
+        return ResponseEntity.ok().headers(responseHeaders).body(userResponse);
+    }
+
+    @Operation(summary = "Issue Access Token",
+            description = "Exchange Basic credentials for a short-lived signed bearer token")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Success - Token issued"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Basic credentials required"),
+    })
+    @PostMapping("/token")
+    public ResponseEntity<TokenResponseDTO> issueToken() {
+        logger.debug("POST /v1/user/token hit started");
+        String authenticatedEmail = getAuthenticatedUserEmailHelper();
+        TokenResponseDTO response = TokenResponseDTO.builder()
+                .access_token(tokenService.issue(authenticatedEmail))
+                .token_type("Bearer")
+                .expires_in(tokenService.getTtlSeconds())
+                .build();
+        logger.info("POST /v1/user/token hit completed");
+        HttpHeaders responseHeaders = new HttpHeaders();
+        responseHeaders.setCacheControl("no-cache, no-store, must-revalidate");
+        responseHeaders.setPragma("no-cache");
+        return ResponseEntity.ok().headers(responseHeaders).body(response);
+    }
+
+    @Operation(summary = "Bulk import users",
+            description = "Stream newline-delimited user JSON in and get one NDJSON result line per input row back")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Success - Per-row results streamed"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Authentication required"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Admin role required"),
+    })
+    @PostMapping(value = "/import", consumes = "application/x-ndjson", produces = "application/x-ndjson")
+    public WebAsyncTask<Void> importUsers(HttpServletRequest request, HttpServletResponse response) {
+        logger.debug("POST /v1/user/import hit started");
+        response.setContentType("application/x-ndjson");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache, no-store, must-revalidate");
+        // Streams on an MVC async thread with its own timeout; other async requests keep the default one
+        return new WebAsyncTask<>(userImportService.getRequestTimeoutMillis(), () -> {
+            userImportService.importUsers(request.getInputStream(), response.getOutputStream());
+            return null;
+        });
     }
 
     @Operation(summary = "Update User Profile",
@@ -85,7 +152,7 @@ public class UserController {
     })
     @PutMapping("/self")
     public ResponseEntity<UserResponseDTO> updateUserDetails(@Valid @RequestBody CustomUserPUTDTO customUserPUTDTO) {
-        logger.info("PUT /v1/user/self hit started with request body: {}", customUserPUTDTO);
+        logger.debug("PUT /v1/user/self hit started");
         if (isRequestBodyEmptyHelper(customUserPUTDTO)) {
             logger.info("PUT /v1/user/self hit completed");
             return ResponseEntity.badRequest().build();
@@ -98,37 +165,81 @@ public class UserController {
     }
 
     @PostMapping("/self/pic")
-    public ResponseEntity<UserImageResponseDTO> uploadProfilePic(
+    public CompletableFuture<ResponseEntity<UserImageResponseDTO>> uploadProfilePic(
             @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) String contentLength,
             @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
             @RequestParam("profilePic") MultipartFile profilePic,
             WebRequest webRequest) {
-        logger.info("POST /v1/user/self/pic hit started");
+        logger.debug("POST /v1/user/self/pic hit started");
         HttpHeaders responseHeaders = new HttpHeaders();
         responseHeaders.setCacheControl("no-cache, no-store, must-revalidate");
         responseHeaders.setPragma("no-cache");
         if (!webRequest.getParameterMap().isEmpty()) {
             logger.error("Query parameters are not allowed for {} endpoint", "/self/pic");
             logger.info("POST /self/pic hit completed successfully");
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .headers(responseHeaders)
-                    .build();
+                    .build());
         }
         String authenticatedEmail = getAuthenticatedUserEmailHelper();
-        UserImageResponseDTO response = userService.uploadProfilePicture(authenticatedEmail, profilePic);
-        logger.info("POST /v1/user/self/pic hit completed with response: {}", response);
-        return new ResponseEntity<>(response, HttpStatus.CREATED);
+        return userService.uploadProfilePictureAsync(authenticatedEmail, profilePic)
+                .thenApply(response -> {
+                    logger.info("POST /v1/user/self/pic hit completed for user {}", response.getUserId());
+                    return new ResponseEntity<>(response, HttpStatus.CREATED);
+                });
+    }
+
+    @Operation(summary = "Request a profile picture upload URL",
+            description = "Issue a short-lived presigned URL to PUT the picture straight to S3")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Success - Upload URL issued"),
+            @ApiResponse(responseCode = "400", description = "Bad Request - Picture already exists or unsupported file"),
+            @ApiResponse(responseCode = "413", description = "Payload Too Large - Declared size over the limit"),
+    })
+    @PostMapping("/self/pic/upload-url")
+    public ResponseEntity<PresignedUploadResponseDTO> createProfilePicUploadUrl(
+            @Valid @RequestBody PresignedUploadRequestDTO presignedUploadRequestDTO) {
+        logger.debug("POST /v1/user/self/pic/upload-url hit started");
+        String authenticatedEmail = getAuthenticatedUserEmailHelper();
+        PresignedUploadResponseDTO response = userService.createProfilePictureUploadUrl(authenticatedEmail,
+                presignedUploadRequestDTO);
+        logger.info("POST /v1/user/self/pic/upload-url hit completed");
+        HttpHeaders responseHeaders = new HttpHeaders();
+        responseHeaders.setCacheControl("no-cache, no-store, must-revalidate");
+        responseHeaders.setPragma("no-cache");
+        return ResponseEntity.status(HttpStatus.CREATED).headers(responseHeaders).body(response);
+    }
+
+    @Operation(summary = "Complete a profile picture upload",
+            description = "Record a picture uploaded with a presigned URL on the user")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Success - Picture recorded"),
+            @ApiResponse(responseCode = "400", description = "Bad Request - Key not issued to this user"),
+            @ApiResponse(responseCode = "404", description = "Not Found - Nothing was uploaded to the key"),
+    })
+    @PostMapping("/self/pic/complete")
+    public ResponseEntity<UserImageResponseDTO> completeProfilePicUpload(
+            @Valid @RequestBody PresignedUploadCompleteDTO presignedUploadCompleteDTO) {
+        logger.debug("POST /v1/user/self/pic/complete hit started");
+        String authenticatedEmail = getAuthenticatedUserEmailHelper();
+        UserImageResponseDTO response = userService.completeProfilePictureUpload(authenticatedEmail,
+                presignedUploadCompleteDTO);
+        logger.info("POST /v1/user/self/pic/complete hit completed for user {}", response.getUserId());
+        HttpHeaders responseHeaders = new HttpHeaders();
+        responseHeaders.setCacheControl("no-cache, no-store, must-revalidate");
+        responseHeaders.setPragma("no-cache");
+        return ResponseEntity.status(HttpStatus.CREATED).headers(responseHeaders).body(response);
     }
 
     @GetMapping("/self/pic")
     public ResponseEntity<UserImageResponseDTO> getProfilePic(
             @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) String contentLength,
             @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
             WebRequest webRequest) {
-        logger.info("GET /v1/user/self/pic hit started");
+        logger.debug("GET /v1/user/self/pic hit started");
         HttpHeaders responseHeaders = new HttpHeaders();
-        responseHeaders.setCacheControl("no-cache, no-store, must-revalidate");
-        responseHeaders.setPragma("no-cache");
+        responseHeaders.setCacheControl("private, no-cache");
         if (!webRequest.getParameterMap().isEmpty()) {
             logger.error("Query parameters are not allowed for {} endpoint", "/self/pic");
             logger.info("GET /self/pic hit completed with error");
@@ -152,19 +263,49 @@ public class UserController {
                     .build();
         }
         String authenticatedEmail = getAuthenticatedUserEmailHelper();
+        Optional<String> etag = userService.getProfilePictureETag(authenticatedEmail);
+        if (etag.isPresent() && etagMatchesUtil(ifNoneMatch, etag.get())) {
+            logger.info("GET /v1/user/self/pic hit completed, not modified");
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(responseHeaders).eTag(etag.get()).build();
+        }
         UserImageResponseDTO response = userService.getProfilePicture(authenticatedEmail);
-        logger.info("GET /v1/user/self/pic hit completed with response: {}", response);
+        etag.ifPresent(responseHeaders::setETag);
+        logger.info("GET /v1/user/self/pic hit completed for user {}", response.getUserId());
         return ResponseEntity.ok()
                 .headers(responseHeaders)
                 .body(response);
     }
 
+    @Operation(summary = "Download profile picture",
+            description = "Stream the picture, or the variant of the given size, from the local cache")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Success - Picture streamed"),
+            @ApiResponse(responseCode = "206", description = "Partial Content - Requested byte range streamed"),
+            @ApiResponse(responseCode = "304", description = "Not Modified - ETag still matches"),
+            @ApiResponse(responseCode = "404", description = "Not Found - No picture or no variant of that size"),
+    })
+    @GetMapping("/self/pic/content")
+    public void getProfilePicContent(@RequestParam(value = "size", required = false) Integer size,
+                                     HttpServletRequest request,
+                                     HttpServletResponse response) throws IOException {
+        logger.debug("GET /v1/user/self/pic/content hit started");
+        String authenticatedEmail = getAuthenticatedUserEmailHelper();
+        Optional<String> etag = userService.getProfilePictureContentETag(authenticatedEmail, size);
+        if (etag.isPresent() && ImageContentWriter.notModified(etag.get(), request, response)) {
+            logger.info("GET /v1/user/self/pic/content hit completed with status {}", response.getStatus());
+            return;
+        }
+        ImageDiskCache.CachedImage image = userService.getProfilePictureContent(authenticatedEmail, size);
+        ImageContentWriter.write(image, request, response);
+        logger.info("GET /v1/user/self/pic/content hit completed with status {}", response.getStatus());
+    }
+
     @DeleteMapping("/self/pic")
-    public ResponseEntity<Void> deleteProfilePic(
+    public CompletableFuture<ResponseEntity<Void>> deleteProfilePic(
             @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) String contentLength,
             @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
             WebRequest webRequest) {
-        logger.info("DELETE /v1/user/self/pic hit started");
+        logger.debug("DELETE /v1/user/self/pic hit started");
         HttpHeaders responseHeaders = new HttpHeaders();
         responseHeaders.setCacheControl("no-cache, no-store, must-revalidate");
         responseHeaders.setPragma("no-cache");
@@ -172,39 +313,41 @@ public class UserController {
         if (!webRequest.getParameterMap().isEmpty()) {
             logger.error("Query parameters are not allowed for {} endpoint", "/self/pic");
             logger.info("DELETE /self/pic hit completed with error");
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .headers(responseHeaders)
-                    .build();
+                    .build());
         }
 
         if (contentLength != null && Integer.parseInt(contentLength) > 0) {
             logger.error("Payload is not allowed for {} endpoint", "/self/pic");
             logger.info("DELETE /self/pic hit completed successfully");
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .headers(responseHeaders)
-                    .build();
+                    .build());
         }
 
         if (contentType != null && !contentType.equals(MediaType.ALL_VALUE)) {
             logger.error("Content type is not allowed for {} endpoint", "/self/pic");
             logger.info("DELETE /self/pic hit completed successfully");
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .headers(responseHeaders)
-                    .build();
+                    .build());
         }
         String authenticatedEmail = getAuthenticatedUserEmailHelper();
-        userService.deleteProfilePicture(authenticatedEmail);
-        logger.info("DELETE /v1/user/self/pic hit completed successfully");
-        return ResponseEntity.noContent()
-                .headers(responseHeaders)
-                .build();
+        return userService.deleteProfilePictureAsync(authenticatedEmail)
+                .thenApply(done -> {
+                    logger.info("DELETE /v1/user/self/pic hit completed successfully");
+                    return ResponseEntity.noContent()
+                            .headers(responseHeaders)
+                            .<Void>build();
+                });
     }
 
     @GetMapping("/verify")
     public ResponseEntity<String> verifyUser(@RequestParam String token) {
-        logger.info("GET /v1/user/verify hit started for token: {}", token);
+        logger.debug("GET /v1/user/verify hit started");
         boolean isVerified = userService.verifyUserByToken(token);
-        logger.info("GET /v1/user/verify hit completed for token {} with response: {}", token, isVerified);
+        logger.info("GET /v1/user/verify hit completed with response: {}", isVerified);
         if (isVerified) {
             return ResponseEntity.ok("User verified successfully");
         } else {
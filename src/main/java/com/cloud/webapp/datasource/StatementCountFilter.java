@@ -0,0 +1,98 @@
+package com.cloud.webapp.datasource;
+
+import com.cloud.webapp.metrics.MetricsAggregator;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import software.amazon.awssdk.services.cloudwatch.model.StandardUnit;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the JDBC statements each HTTP request runs and records the count per endpoint. Work the request hands to the
+ * application task executor (async picture uploads and deletes, the bulk import) is counted as well: the executor
+ * carries the counter over (see {@link StatementCountTaskDecorator}), and an async request is recorded on its async
+ * dispatch, once that work is done. Statements on other pools are not counted.
+ * Ordered ahead of Spring Security so the user lookup done during authentication is included.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "metrics.jdbc.enabled", havingValue = "true", matchIfMissing = true)
+public class StatementCountFilter extends OncePerRequestFilter {
+
+    private static final ThreadLocal<AtomicInteger> STATEMENTS = new ThreadLocal<>();
+    private static final String COUNT_ATTRIBUTE = StatementCountFilter.class.getName() + ".count";
+
+    private final MetricsAggregator metricsAggregator;
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    public StatementCountFilter(MetricsAggregator metricsAggregator) {
+        this.metricsAggregator = metricsAggregator;
+    }
+
+    static void increment() {
+        AtomicInteger count = STATEMENTS.get();
+        if (count != null) {
+            count.incrementAndGet();
+        }
+    }
+
+    // Binds the submitting request's counter, if any, for the duration of the task
+    static Runnable propagate(Runnable task) {
+        AtomicInteger count = STATEMENTS.get();
+        if (count == null) {
+            return task;
+        }
+        return () -> {
+            AtomicInteger previous = STATEMENTS.get();
+            STATEMENTS.set(count);
+            try {
+                task.run();
+            } finally {
+                if (previous != null) {
+                    STATEMENTS.set(previous);
+                } else {
+                    STATEMENTS.remove();
+                }
+            }
+        };
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        // An async request passes through twice and keeps one counter
+        AtomicInteger count = (AtomicInteger) request.getAttribute(COUNT_ATTRIBUTE);
+        if (count == null) {
+            count = new AtomicInteger();
+            request.setAttribute(COUNT_ATTRIBUTE, count);
+        }
+        STATEMENTS.set(count);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            STATEMENTS.remove();
+            if (!isAsyncStarted(request)) {
+                Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                String endpoint = request.getMethod() + " " + (pattern != null ? pattern : "unmapped");
+                metricsAggregator.record("StatementsPerRequest", StandardUnit.COUNT, "Endpoint", endpoint, count.get());
+                logger.debug("{} ran {} JDBC statements", endpoint, count.get());
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.cloud.webapp.datasource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Carries the request's statement counter onto the application task executor, which Spring Boot builds with the
+ * single TaskDecorator bean. Spring MVC runs async request work such as the bulk import on the same executor.
+ */
+@Component
+@ConditionalOnProperty(name = "metrics.jdbc.enabled", havingValue = "true", matchIfMissing = true)
+public class StatementCountTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        return StatementCountFilter.propagate(runnable);
+    }
+}
@@ -0,0 +1,130 @@
+package com.cloud.webapp.datasource;
+
+import com.cloud.webapp.metrics.MetricsAggregator;
+import com.cloud.webapp.metrics.OperationTimer;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.cloudwatch.model.Dimension;
+import software.amazon.awssdk.services.cloudwatch.model.StandardUnit;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every JDBC statement and attributes it to the innermost timed operation (normally the repository
+ * method), counts it against the current HTTP request, and logs statements slower than the threshold.
+ * EXPLAIN for slow SELECTs runs on its own thread against the unproxied data source, so it never adds
+ * to request latency and is skipped when that thread is busy.
+ */
+public class StatementMetricsListener implements QueryExecutionListener {
+
+    private static final String START_NANOS = StatementMetricsListener.class.getName() + ".START";
+    private static final String UNATTRIBUTED = "unattributed";
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final MetricsAggregator metricsAggregator;
+    private final DataSource explainDataSource;
+    private final long slowQueryThresholdNanos;
+    private final ThreadPoolExecutor explainExecutor;
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    public StatementMetricsListener(MetricsAggregator metricsAggregator, DataSource explainDataSource,
+                                    long slowQueryThresholdMs, boolean explainSlowQueries) {
+        this.metricsAggregator = metricsAggregator;
+        this.explainDataSource = explainDataSource;
+        this.slowQueryThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryThresholdMs);
+        this.explainExecutor = explainSlowQueries
+                ? new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(16), runnable -> {
+                    Thread thread = new Thread(runnable, "slow-query-explain");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy())
+                : null;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(START_NANOS, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Long start = execInfo.getCustomValue(START_NANOS, Long.class);
+        long elapsed = start != null
+                ? System.nanoTime() - start
+                : TimeUnit.MILLISECONDS.toNanos(execInfo.getElapsedTime());
+        String operation = OperationTimer.currentOperation();
+        if (operation == null) {
+            operation = UNATTRIBUTED;
+        }
+
+        StatementCountFilter.increment();
+        List<Dimension> dimensions = List.of(Dimension.builder().name("QueryName").value(operation).build());
+        metricsAggregator.record("JdbcStatementTime", StandardUnit.MILLISECONDS, dimensions, elapsed / NANOS_PER_MILLI);
+        if (!execInfo.isSuccess()) {
+            metricsAggregator.record("JdbcStatementErrors", StandardUnit.COUNT, dimensions, 1.0);
+        }
+
+        if (elapsed >= slowQueryThresholdNanos) {
+            logSlowQuery(operation, elapsed, execInfo, queryInfoList);
+        }
+    }
+
+    private void logSlowQuery(String operation, long elapsed, ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        for (QueryInfo queryInfo : queryInfoList) {
+            String sql = queryInfo.getQuery();
+            logger.warn("Slow query ({} ms, {}{}): {}", String.format(Locale.ROOT, "%.1f", elapsed / NANOS_PER_MILLI),
+                    operation, execInfo.isBatch() ? ", batch of " + execInfo.getBatchSize() : "", sql);
+
+            if (explainExecutor != null && sql.stripLeading().regionMatches(true, 0, "select", 0, 6)) {
+                List<ParameterSetOperation> parameters = queryInfo.getParametersList().isEmpty()
+                        ? List.of()
+                        : List.copyOf(queryInfo.getParametersList().get(0));
+                try {
+                    explainExecutor.execute(() -> explain(sql, parameters));
+                } catch (RejectedExecutionException e) {
+                    logger.debug("Skipping EXPLAIN, explain queue is full");
+                }
+            }
+        }
+    }
+
+    private void explain(String sql, List<ParameterSetOperation> parameters) {
+        try (Connection connection = explainDataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            for (ParameterSetOperation parameter : parameters) {
+                Object[] args = parameter.getArgs();
+                if (args.length >= 2 && args[0] instanceof Integer index) {
+                    statement.setObject(index, args[1]);
+                }
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                ResultSetMetaData metaData = resultSet.getMetaData();
+                while (resultSet.next()) {
+                    plan.append('\n');
+                    for (int column = 1; column <= metaData.getColumnCount(); column++) {
+                        plan.append(metaData.getColumnLabel(column)).append('=').append(resultSet.getString(column)).append(' ');
+                    }
+                }
+            }
+            logger.warn("EXPLAIN {}{}", sql, plan);
+        } catch (SQLException e) {
+            logger.debug("EXPLAIN failed for {}: {}", sql, e.getMessage());
+        }
+    }
+}
@@ -2,12 +2,13 @@ package com.cloud.webapp.entity;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.MappedSuperclass;
-import jakarta.persistence.PreUpdate;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
 
-import static com.cloud.webapp.utils.helpers.getCurrentTimeUtil;
+import java.time.Instant;
 
 
 @AllArgsConstructor
@@ -15,14 +16,11 @@ import static com.cloud.webapp.utils.helpers.getCurrentTimeUtil;
 @MappedSuperclass
 @Data
 public class AuditableEntity {
-    @Column(name = "account_created", nullable = false)
-    public String account_created = getCurrentTimeUtil();
+    @CreationTimestamp
+    @Column(name = "account_created", columnDefinition = "datetime(3)", nullable = false, updatable = false)
+    public Instant account_created;
 
-    @Column(name = "account_updated", nullable = false)
-    public String account_updated = getCurrentTimeUtil();
-
-    @PreUpdate
-    public void preUpdate() {
-        this.account_updated = getCurrentTimeUtil();
-    }
-}
\ No newline at end of file
+    @UpdateTimestamp
+    @Column(name = "account_updated", columnDefinition = "datetime(3)", nullable = false)
+    public Instant account_updated;
+}
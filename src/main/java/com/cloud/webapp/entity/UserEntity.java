@@ -5,26 +5,37 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 import static com.cloud.webapp.utils.constants.USER_TABLE;
+import static com.cloud.webapp.utils.helpers.generateTimeOrderedUuid;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
 @Entity
-@Table(name = USER_TABLE)
+@Table(name = USER_TABLE,
+        uniqueConstraints = @UniqueConstraint(name = "uk_user_email", columnNames = "email"),
+        indexes = @Index(name = "idx_user_verification_token", columnList = "verification_token"))
 public class UserEntity extends AuditableEntity {
 
+    // Time-ordered UUIDv7 stored as BINARY(16) so inserts append to the clustered index
     @Id
-    @Column(name = "id", columnDefinition = "char(36)", updatable = false, nullable = false)
-    private String id;
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(name = "id", columnDefinition = "binary(16)", updatable = false, nullable = false)
+    private UUID id;
 
     @PrePersist
     public void generateUUID() {
-        this.id = UUID.randomUUID().toString();
+        if (this.id == null) {
+            this.id = generateTimeOrderedUuid();
+        }
     }
 
     @Column(name = "first_name")
@@ -33,10 +44,11 @@ public class UserEntity extends AuditableEntity {
     @Column(name = "last_name")
     private String last_name;
 
-    @Column(name = "email")
+    @Column(name = "email", unique = true)
     private String email;
 
     @Column(name = "password")
+    @ToString.Exclude
     private String password;
 
     @Column(name="s3object_key")
@@ -45,10 +57,19 @@ public class UserEntity extends AuditableEntity {
     @Column(name="image_url")
     private String imageUrl;
 
+    // Sizes of the resized copies stored next to the picture, e.g. "64,256"
+    @Column(name="image_variants")
+    private String imageVariants;
+
+    // Set before a picture's bytes are written and cleared by the save that records them; see UserServiceImpl
+    @Column(name="pending_s3object_key")
+    private String pendingS3ObjectKey;
+
     @Column(name="verified")
     private boolean verified;
 
     @Column(name="verification_token")
+    @ToString.Exclude
     private String verificationToken;
 
     @Column(name="token_expiration_time")
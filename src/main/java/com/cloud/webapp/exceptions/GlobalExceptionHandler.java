@@ -2,7 +2,9 @@ package com.cloud.webapp.exceptions;
 
 import com.cloud.webapp.DTO.ResponseDTO;
 import com.cloud.webapp.exceptions.Types.FieldAlreadyExistsException;
+import com.cloud.webapp.exceptions.Types.PayloadTooLargeException;
 import com.cloud.webapp.exceptions.Types.ResourceNotFoundException;
+import com.cloud.webapp.exceptions.Types.ServiceOverloadedException;
 import com.cloud.webapp.exceptions.Types.UserNotVerifiedException;
 import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
 import org.springframework.http.HttpHeaders;
@@ -53,6 +55,18 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler({PayloadTooLargeException.class})
+    public ResponseEntity<ResponseDTO> handlePayloadTooLargeException(PayloadTooLargeException exception,
+                                                                      WebRequest webRequest) {
+        ResponseDTO errorDetails = new ResponseDTO(
+                LocalDateTime.now(),
+                exception.getMessage(),
+                webRequest.getDescription(false),
+                "PAYLOAD_TOO_LARGE"
+        );
+        return new ResponseEntity<>(HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
     @Override
     protected ResponseEntity<Object> handleHttpRequestMethodNotSupported(
             HttpRequestMethodNotSupportedException ex,
@@ -160,4 +174,17 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         );
         return new ResponseEntity<>(HttpStatus.FORBIDDEN);
     }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ResponseDTO> handleServiceOverloadedException(ServiceOverloadedException ex, WebRequest webRequest) {
+        ResponseDTO errorDetails = new ResponseDTO(
+                LocalDateTime.now(),
+                ex.getMessage(),
+                webRequest.getDescription(false),
+                "SERVICE_OVERLOADED"
+        );
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "1");
+        return new ResponseEntity<>(headers, HttpStatus.SERVICE_UNAVAILABLE);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.cloud.webapp.exceptions.Types;
+
+import com.cloud.webapp.exceptions.BaseException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.PAYLOAD_TOO_LARGE)
+public class PayloadTooLargeException extends BaseException {
+    public PayloadTooLargeException(String resourceName, String fieldName, long maxBytes) {
+        super(String.format("%s exceeds the maximum %s of %d bytes", resourceName, fieldName, maxBytes),
+                resourceName, fieldName, maxBytes);
+    }
+}
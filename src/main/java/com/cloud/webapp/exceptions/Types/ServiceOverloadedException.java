@@ -0,0 +1,18 @@
+package com.cloud.webapp.exceptions.Types;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ServiceOverloadedException extends RuntimeException {
+
+    public ServiceOverloadedException(String message) {
+        super(message);
+    }
+
+    //reduce stack trace, these are thrown on the hot path when shedding load
+    @Override
+    public Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,40 @@
+package com.cloud.webapp.health;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+@Component
+public class DatabaseHealthProbe implements HealthProbe {
+
+    private final DataSource dataSource;
+    private final int validationTimeoutSeconds;
+
+    public DatabaseHealthProbe(DataSource dataSource,
+                               @Value("${health.probe-timeout-ms:2000}") long probeTimeoutMillis) {
+        this.dataSource = dataSource;
+        this.validationTimeoutSeconds = (int) Math.max(1, probeTimeoutMillis / 1000);
+    }
+
+    @Override
+    public String name() {
+        return "database";
+    }
+
+    @Override
+    public boolean critical() {
+        return true;
+    }
+
+    @Override
+    public void check() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            if (!connection.isValid(validationTimeoutSeconds)) {
+                throw new SQLException("Connection failed validation");
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.cloud.webapp.health;
+
+import lombok.AllArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+// Serves /actuator/health from the monitor's last round; replaces the default db indicator (management.health.db.enabled=false)
+@Component
+@AllArgsConstructor
+public class DependenciesHealthIndicator implements HealthIndicator {
+
+    private final HealthMonitor healthMonitor;
+
+    @Override
+    public Health health() {
+        HealthMonitor.Snapshot snapshot = healthMonitor.getSnapshot();
+        if (snapshot == null) {
+            return Health.unknown().withDetail("reason", "No health check has completed yet").build();
+        }
+        Health.Builder builder = healthMonitor.isReady() ? Health.up() : Health.down();
+        builder.withDetail("checkedAt", snapshot.checkedAt().toString());
+        snapshot.results().forEach(builder::withDetail);
+        return builder.build();
+    }
+}
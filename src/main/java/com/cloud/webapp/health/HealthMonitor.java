@@ -0,0 +1,171 @@
+package com.cloud.webapp.health;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs every {@link HealthProbe} on a background schedule and keeps the latest results, so health endpoints
+ * answer from memory however often they are polled. Each probe gets its own thread and a timeout; a probe
+ * that is still hanging from an earlier round is reported as down rather than started again.
+ * A snapshot older than {@code health.stale-after-ms} counts as not ready.
+ */
+@Component
+public class HealthMonitor {
+
+    private final List<HealthProbe> probes;
+    private final long intervalMillis;
+    private final long probeTimeoutMillis;
+    private final Duration staleAfter;
+    private final Map<String, Future<Long>> running = new ConcurrentHashMap<>();
+    private volatile Snapshot snapshot;
+    private ScheduledExecutorService scheduler;
+    private final ExecutorService probeExecutor;
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    public HealthMonitor(List<HealthProbe> probes,
+                         @Value("${health.probe-interval-ms:5000}") long intervalMillis,
+                         @Value("${health.probe-timeout-ms:2000}") long probeTimeoutMillis,
+                         @Value("${health.stale-after-ms:15000}") long staleAfterMillis) {
+        this.probes = probes;
+        this.intervalMillis = intervalMillis;
+        this.probeTimeoutMillis = probeTimeoutMillis;
+        this.staleAfter = Duration.ofMillis(staleAfterMillis);
+        this.probeExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "health-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "health-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::probeQuietly, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    // The process is up and still able to run its own checks
+    public boolean isLive() {
+        return isLive(Instant.now());
+    }
+
+    public boolean isReady() {
+        return isReady(Instant.now());
+    }
+
+    boolean isLive(Instant now) {
+        Snapshot current = snapshot;
+        return current == null || !isStale(current, now);
+    }
+
+    boolean isReady(Instant now) {
+        Snapshot current = snapshot;
+        return current != null && !isStale(current, now)
+                && current.results().values().stream().allMatch(result -> result.up() || !result.critical());
+    }
+
+    private boolean isStale(Snapshot current, Instant now) {
+        return current.checkedAt().plus(staleAfter).isBefore(now);
+    }
+
+    void probe() {
+        Map<String, Future<Long>> submitted = new LinkedHashMap<>();
+        for (HealthProbe probe : probes) {
+            Future<Long> previous = running.get(probe.name());
+            if (previous != null && !previous.isDone()) {
+                continue;
+            }
+            Future<Long> future = probeExecutor.submit(() -> {
+                long started = System.nanoTime();
+                probe.check();
+                return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            });
+            running.put(probe.name(), future);
+            submitted.put(probe.name(), future);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(probeTimeoutMillis);
+        Snapshot previousSnapshot = snapshot;
+        Map<String, ProbeResult> results = new LinkedHashMap<>();
+        for (HealthProbe probe : probes) {
+            Future<Long> future = submitted.get(probe.name());
+            ProbeResult result = future == null
+                    ? new ProbeResult(false, probe.critical(), "Previous check still running", probeTimeoutMillis)
+                    : await(probe, future, deadline);
+            results.put(probe.name(), result);
+
+            // Log transitions only, not every failed round
+            ProbeResult previous = previousSnapshot == null ? null : previousSnapshot.results().get(probe.name());
+            if (!result.up() && (previous == null || previous.up())) {
+                logger.warn("Health probe {} failed: {}", probe.name(), result.error());
+            } else if (result.up() && previous != null && !previous.up()) {
+                logger.info("Health probe {} recovered", probe.name());
+            }
+        }
+        snapshot = new Snapshot(Instant.now(), results);
+    }
+
+    private ProbeResult await(HealthProbe probe, Future<Long> future, long deadline) {
+        try {
+            long durationMillis = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return new ProbeResult(true, probe.critical(), null, durationMillis);
+        } catch (TimeoutException e) {
+            return new ProbeResult(false, probe.critical(), "Timed out after " + probeTimeoutMillis + " ms", probeTimeoutMillis);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            String error = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+            return new ProbeResult(false, probe.critical(), error, -1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ProbeResult(false, probe.critical(), "Interrupted", -1);
+        }
+    }
+
+    private void probeQuietly() {
+        try {
+            probe();
+        } catch (RuntimeException e) {
+            // Keep the schedule alive; the snapshot simply goes stale
+            logger.error("Health monitor round failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        probeExecutor.shutdownNow();
+    }
+
+    public record ProbeResult(boolean up, boolean critical, String error, long durationMillis) {
+    }
+
+    public record Snapshot(Instant checkedAt, Map<String, ProbeResult> results) {
+    }
+}
@@ -0,0 +1,17 @@
+package com.cloud.webapp.health;
+
+/**
+ * A dependency check run by {@link HealthMonitor} on its own schedule, never on a request thread.
+ * {@link #check()} signals failure by throwing.
+ */
+public interface HealthProbe {
+
+    String name();
+
+    // Readiness only fails when a critical probe fails; the others are reported but tolerated
+    default boolean critical() {
+        return false;
+    }
+
+    void check() throws Exception;
+}
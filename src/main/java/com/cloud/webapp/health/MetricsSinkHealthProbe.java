@@ -0,0 +1,26 @@
+package com.cloud.webapp.health;
+
+import com.cloud.webapp.metrics.MetricsAggregator;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+
+// Reports the outcome of the aggregator's last flush instead of calling the sink a second time
+@Component
+@AllArgsConstructor
+public class MetricsSinkHealthProbe implements HealthProbe {
+
+    private final MetricsAggregator metricsAggregator;
+
+    @Override
+    public String name() {
+        return "metrics";
+    }
+
+    @Override
+    public void check() {
+        String error = metricsAggregator.getLastFlushError();
+        if (error != null) {
+            throw new IllegalStateException("Last metrics flush failed: " + error);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.cloud.webapp.health;
+
+import com.cloud.webapp.service.aws.S3Service;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@Component
+@AllArgsConstructor
+public class S3HealthProbe implements HealthProbe {
+
+    private final S3Service s3Service;
+
+    @Override
+    public String name() {
+        return "s3";
+    }
+
+    @Override
+    public void check() {
+        s3Service.checkBucket();
+    }
+}
@@ -0,0 +1,22 @@
+package com.cloud.webapp.health;
+
+import com.cloud.webapp.service.aws.SNSService;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@Component
+@AllArgsConstructor
+public class SnsHealthProbe implements HealthProbe {
+
+    private final SNSService snsService;
+
+    @Override
+    public String name() {
+        return "sns";
+    }
+
+    @Override
+    public void check() {
+        snsService.checkTopic();
+    }
+}
@@ -0,0 +1,79 @@
+package com.cloud.webapp.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thins out high-frequency events from the loggers under {@code loggerName} before a message is ever formatted:
+ * keeps one in {@code sampleRate} events and at most {@code maxPerSecond} per second.
+ * Only events at {@code level} or below are affected, so warnings and errors always get through.
+ * Configured per logger in logback-spring.xml.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private String loggerName = "";
+    private Level level = Level.INFO;
+    private int sampleRate = 1;
+    private int maxPerSecond;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong currentSecond = new AtomicLong();
+    private final AtomicInteger inCurrentSecond = new AtomicInteger();
+    private final LongAdder suppressed = new LongAdder();
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level eventLevel, String format, Object[] params, Throwable t) {
+        // Turbo filters run before the logger's own level check, so events below the effective level
+        // (and null-format isXxxEnabled() checks) must not spend the sample counter or the per-second budget
+        if (!isStarted() || format == null || eventLevel == null || eventLevel.isGreaterOrEqual(Level.WARN)
+                || eventLevel.toInt() > level.toInt() || !logger.getName().startsWith(loggerName)
+                || eventLevel.toInt() < logger.getEffectiveLevel().toInt()) {
+            return FilterReply.NEUTRAL;
+        }
+        if (sampleRate > 1 && sequence.getAndIncrement() % sampleRate != 0) {
+            suppressed.increment();
+            return FilterReply.DENY;
+        }
+        if (maxPerSecond > 0 && !acquire()) {
+            suppressed.increment();
+            return FilterReply.DENY;
+        }
+        return FilterReply.NEUTRAL;
+    }
+
+    private boolean acquire() {
+        long second = System.currentTimeMillis() / 1000;
+        long window = currentSecond.get();
+        if (second != window && currentSecond.compareAndSet(window, second)) {
+            inCurrentSecond.set(0);
+        }
+        return inCurrentSecond.incrementAndGet() <= maxPerSecond;
+    }
+
+    public long getSuppressedCount() {
+        return suppressed.sum();
+    }
+
+    public void setLoggerName(String loggerName) {
+        this.loggerName = loggerName;
+    }
+
+    public void setLevel(String level) {
+        this.level = Level.toLevel(level, Level.INFO);
+    }
+
+    public void setSampleRate(int sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    public void setMaxPerSecond(int maxPerSecond) {
+        this.maxPerSecond = maxPerSecond;
+    }
+}
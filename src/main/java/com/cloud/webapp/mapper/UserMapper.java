@@ -4,10 +4,12 @@ import com.cloud.webapp.DTO.CustomUserPUTDTO;
 import com.cloud.webapp.DTO.UserRequestDTO;
 import com.cloud.webapp.DTO.UserResponseDTO;
 import com.cloud.webapp.entity.UserEntity;
+import com.cloud.webapp.repository.projection.UserProfileView;
 
 public interface UserMapper {
     UserEntity toEntityFromRequestDTO(UserRequestDTO userModel);
     UserResponseDTO toResponseDTOfromEntity(UserEntity userEntity);
+    UserResponseDTO toResponseDTOFromProfileView(UserProfileView userProfileView);
     UserResponseDTO toResponseDTOFromRequestDTO(UserRequestDTO userModel);
     UserRequestDTO toRequestDTOFromCustomUserRequestDTO(CustomUserPUTDTO customUserPUTDTO);
 }
\ No newline at end of file
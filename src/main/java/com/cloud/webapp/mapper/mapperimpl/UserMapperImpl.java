@@ -5,10 +5,13 @@ import com.cloud.webapp.DTO.UserRequestDTO;
 import com.cloud.webapp.DTO.UserResponseDTO;
 import com.cloud.webapp.entity.UserEntity;
 import com.cloud.webapp.mapper.UserMapper;
+import com.cloud.webapp.repository.projection.UserProfileView;
 import lombok.AllArgsConstructor;
 import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Component;
 
+import static com.cloud.webapp.utils.helpers.formatTimestampUtil;
+
 @Component
 @AllArgsConstructor
 public class UserMapperImpl implements UserMapper {
@@ -24,6 +27,20 @@ public class UserMapperImpl implements UserMapper {
         return modelMapper.map(userEntity, UserResponseDTO.class);
     }
 
+    // Hot read path, mapped by hand instead of through ModelMapper's reflection
+    @Override
+    public UserResponseDTO toResponseDTOFromProfileView(UserProfileView userProfileView) {
+        return UserResponseDTO.builder()
+                .id(userProfileView.id().toString())
+                .first_name(userProfileView.first_name())
+                .last_name(userProfileView.last_name())
+                .email(userProfileView.email())
+                .account_created(formatTimestampUtil(userProfileView.account_created()))
+                .account_updated(formatTimestampUtil(userProfileView.account_updated()))
+                .s3ObjectKey(userProfileView.s3ObjectKey())
+                .imageUrl(userProfileView.imageUrl())
+                .build();
+    }
 
     @Override
     public UserResponseDTO toResponseDTOFromRequestDTO(UserRequestDTO userModel) {
@@ -0,0 +1,44 @@
+package com.cloud.webapp.metrics;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.cloudwatch.CloudWatchClient;
+import software.amazon.awssdk.services.cloudwatch.model.MetricDatum;
+import software.amazon.awssdk.services.cloudwatch.model.PutMetricDataRequest;
+
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = "metrics.sink", havingValue = "cloudwatch", matchIfMissing = true)
+public class CloudWatchMetricsSink implements MetricsSink {
+
+    // PutMetricData accepts at most 1000 datums per request
+    private static final int MAX_DATUMS_PER_REQUEST = 1000;
+
+    private final CloudWatchClient cloudWatch;
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    public CloudWatchMetricsSink() {
+        this.cloudWatch = CloudWatchClient.create();
+    }
+
+    @Override
+    public void publish(String namespace, List<MetricDatum> metricData) {
+        for (int start = 0; start < metricData.size(); start += MAX_DATUMS_PER_REQUEST) {
+            List<MetricDatum> batch = metricData.subList(start, Math.min(start + MAX_DATUMS_PER_REQUEST, metricData.size()));
+            cloudWatch.putMetricData(PutMetricDataRequest.builder()
+                    .namespace(namespace)
+                    .metricData(batch)
+                    .build());
+            logger.debug("Sent {} metric datums to CloudWatch", batch.size());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        cloudWatch.close();
+    }
+}
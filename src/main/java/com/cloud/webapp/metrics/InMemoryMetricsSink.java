@@ -0,0 +1,42 @@
+package com.cloud.webapp.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.cloudwatch.model.MetricDatum;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Local stand-in for CloudWatch (metrics.sink=local): keeps the most recently published datums
+ * in memory and logs them, so the pipeline can be run and tested without AWS credentials.
+ */
+@Component
+@ConditionalOnProperty(name = "metrics.sink", havingValue = "local")
+public class InMemoryMetricsSink implements MetricsSink {
+
+    private static final int MAX_RETAINED = 10_000;
+
+    private final List<MetricDatum> published = new ArrayList<>();
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    @Override
+    public synchronized void publish(String namespace, List<MetricDatum> metricData) {
+        metricData.forEach(datum -> logger.info("[{}] {} {} {}", namespace, datum.metricName(),
+                datum.dimensions(), datum.statisticValues()));
+        published.addAll(metricData);
+        if (published.size() > MAX_RETAINED) {
+            published.subList(0, published.size() - MAX_RETAINED).clear();
+        }
+    }
+
+    public synchronized List<MetricDatum> getPublished() {
+        return List.copyOf(published);
+    }
+
+    public synchronized void clear() {
+        published.clear();
+    }
+}
@@ -0,0 +1,28 @@
+package com.cloud.webapp.metrics;
+
+import lombok.AllArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// GET /actuator/latency and /actuator/latency/{api}
+@Component
+@Endpoint(id = "latency")
+@AllArgsConstructor
+public class LatencyEndpoint {
+
+    private final LatencyHistograms latencyHistograms;
+
+    @ReadOperation
+    public Map<String, LatencyHistograms.ApiLatency> latency() {
+        return latencyHistograms.snapshot();
+    }
+
+    @ReadOperation
+    public LatencyHistograms.ApiLatency latencyFor(@Selector String api) {
+        return latencyHistograms.snapshot(api);
+    }
+}
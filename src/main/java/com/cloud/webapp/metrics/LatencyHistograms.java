@@ -0,0 +1,177 @@
+package com.cloud.webapp.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramIterationValue;
+import org.HdrHistogram.Recorder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.cloudwatch.model.Dimension;
+import software.amazon.awssdk.services.cloudwatch.model.MetricDatum;
+import software.amazon.awssdk.services.cloudwatch.model.StandardUnit;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-API latency histograms. Request threads only call {@link Recorder#recordValue}, which is wait-free and
+ * does not allocate; every histogram has a fixed footprint (1µs to 60s at two significant digits). Each flush
+ * exports the interval as a CloudWatch value/count distribution plus p50/p99/p99.9, and the actuator
+ * {@code latency} endpoint reads the same data live. The distribution is published both as {@code ApiLatency}
+ * and under the original per-call metric name {@code ApiResponseTime}, so existing dashboards and alarms keep
+ * their data; its statistics now come from the bucketed values rather than each raw time.
+ */
+@Component
+public class LatencyHistograms implements MetricsSource {
+
+    private static final long LOWEST_NANOS = TimeUnit.MICROSECONDS.toNanos(1);
+    private static final long HIGHEST_NANOS = TimeUnit.SECONDS.toNanos(60);
+    private static final int SIGNIFICANT_DIGITS = 2;
+    // ~60 buckets from 0.1ms to 60s, well under the 150 values PutMetricData accepts per datum
+    private static final long FIRST_BUCKET_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final double BUCKET_GROWTH = 1.25;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    // Name CloudWatchService.recordApiResponseTime published one value per call under
+    private static final String LEGACY_METRIC_NAME = "ApiResponseTime";
+
+    private final Map<String, ApiHistogram> histograms = new ConcurrentHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+    private final int maxApis;
+
+    public LatencyHistograms(@Value("${metrics.latency.max-apis:100}") int maxApis) {
+        this.maxApis = maxApis;
+    }
+
+    public void record(String api, long durationNanos) {
+        ApiHistogram histogram = histograms.get(api);
+        if (histogram == null) {
+            if (histograms.size() >= maxApis) {
+                dropped.increment();
+                return;
+            }
+            histogram = histograms.computeIfAbsent(api, k -> new ApiHistogram());
+        }
+        histogram.recorder.recordValue(Math.max(0, Math.min(durationNanos, HIGHEST_NANOS)));
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    @Override
+    public List<MetricDatum> collect(Instant timestamp) {
+        List<MetricDatum> metricData = new ArrayList<>();
+        histograms.forEach((api, histogram) -> {
+            Histogram interval = histogram.takeInterval();
+            if (interval.getTotalCount() == 0) {
+                return;
+            }
+            Dimension dimension = Dimension.builder().name("APIName").value(api).build();
+
+            List<Double> values = new ArrayList<>();
+            List<Double> counts = new ArrayList<>();
+            for (HistogramIterationValue bucket : interval.logarithmicBucketValues(FIRST_BUCKET_NANOS, BUCKET_GROWTH)) {
+                if (bucket.getCountAddedInThisIterationStep() > 0) {
+                    values.add(bucket.getValueIteratedTo() / NANOS_PER_MILLI);
+                    counts.add((double) bucket.getCountAddedInThisIterationStep());
+                }
+            }
+            metricData.add(distributionDatum("ApiLatency", dimension, values, counts, timestamp));
+            metricData.add(distributionDatum(LEGACY_METRIC_NAME, dimension, values, counts, timestamp));
+
+            metricData.add(percentileDatum("ApiLatencyP50", dimension, interval, 50.0, timestamp));
+            metricData.add(percentileDatum("ApiLatencyP99", dimension, interval, 99.0, timestamp));
+            metricData.add(percentileDatum("ApiLatencyP999", dimension, interval, 99.9, timestamp));
+        });
+        return metricData;
+    }
+
+    /**
+     * Live view per API: the interval not yet exported and everything since startup.
+     */
+    public Map<String, ApiLatency> snapshot() {
+        Map<String, ApiLatency> snapshot = new TreeMap<>();
+        histograms.forEach((api, histogram) -> snapshot.put(api, histogram.snapshot()));
+        return snapshot;
+    }
+
+    public ApiLatency snapshot(String api) {
+        ApiHistogram histogram = histograms.get(api);
+        return histogram == null ? null : histogram.snapshot();
+    }
+
+    private static MetricDatum distributionDatum(String metricName, Dimension dimension, List<Double> values,
+                                                 List<Double> counts, Instant timestamp) {
+        return MetricDatum.builder()
+                .metricName(metricName)
+                .unit(StandardUnit.MILLISECONDS)
+                .dimensions(dimension)
+                .values(values)
+                .counts(counts)
+                .timestamp(timestamp)
+                .build();
+    }
+
+    private static MetricDatum percentileDatum(String metricName, Dimension dimension, Histogram histogram,
+                                               double percentile, Instant timestamp) {
+        return MetricDatum.builder()
+                .metricName(metricName)
+                .unit(StandardUnit.MILLISECONDS)
+                .dimensions(dimension)
+                .value(histogram.getValueAtPercentile(percentile) / NANOS_PER_MILLI)
+                .timestamp(timestamp)
+                .build();
+    }
+
+    private static Histogram newHistogram() {
+        return new Histogram(LOWEST_NANOS, HIGHEST_NANOS, SIGNIFICANT_DIGITS);
+    }
+
+    public record LatencySummary(long count, double meanMs, double p50Ms, double p90Ms, double p99Ms,
+                                 double p999Ms, double maxMs) {
+
+        static LatencySummary of(Histogram histogram) {
+            return new LatencySummary(histogram.getTotalCount(),
+                    histogram.getMean() / NANOS_PER_MILLI,
+                    histogram.getValueAtPercentile(50.0) / NANOS_PER_MILLI,
+                    histogram.getValueAtPercentile(90.0) / NANOS_PER_MILLI,
+                    histogram.getValueAtPercentile(99.0) / NANOS_PER_MILLI,
+                    histogram.getValueAtPercentile(99.9) / NANOS_PER_MILLI,
+                    histogram.getMaxValue() / NANOS_PER_MILLI);
+        }
+    }
+
+    public record ApiLatency(LatencySummary currentInterval, LatencySummary sinceStart) {
+    }
+
+    private static final class ApiHistogram {
+        private final Recorder recorder = new Recorder(LOWEST_NANOS, HIGHEST_NANOS, SIGNIFICANT_DIGITS);
+        private final Histogram interval = newHistogram();
+        private final Histogram total = newHistogram();
+        private Histogram recycled;
+
+        // Only the flush thread and the endpoint get here, so the lock never touches the recording path
+        private void drainRecorder() {
+            recycled = recorder.getIntervalHistogram(recycled);
+            interval.add(recycled);
+            total.add(recycled);
+        }
+
+        synchronized Histogram takeInterval() {
+            drainRecorder();
+            Histogram taken = interval.copy();
+            interval.reset();
+            return taken;
+        }
+
+        synchronized ApiLatency snapshot() {
+            drainRecorder();
+            return new ApiLatency(LatencySummary.of(interval), LatencySummary.of(total));
+        }
+    }
+}
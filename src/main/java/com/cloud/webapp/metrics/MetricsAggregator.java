@@ -0,0 +1,193 @@
+package com.cloud.webapp.metrics;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.cloudwatch.model.Dimension;
+import software.amazon.awssdk.services.cloudwatch.model.MetricDatum;
+import software.amazon.awssdk.services.cloudwatch.model.StandardUnit;
+import software.amazon.awssdk.services.cloudwatch.model.StatisticSet;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregates samples in memory and ships them to the {@link MetricsSink} as one StatisticSet per series,
+ * together with whatever the registered {@link MetricsSource}s have pre-aggregated, on a background thread.
+ * Recording never blocks and never does I/O: it only touches striped adders, and once
+ * {@code metrics.max-series} distinct series exist, samples for new series are dropped.
+ */
+@Component
+public class MetricsAggregator {
+
+    private final MetricsSink sink;
+    private final List<MetricsSource> sources;
+    private final String namespace;
+    private final long flushIntervalSeconds;
+    private final int maxSeries;
+    private final Map<SeriesKey, Series> series = new ConcurrentHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+    private volatile String lastFlushError;
+    private ScheduledExecutorService scheduler;
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    public MetricsAggregator(MetricsSink sink,
+                             List<MetricsSource> sources,
+                             @Value("${metrics.namespace:YourApplicationNamespace}") String namespace,
+                             @Value("${metrics.flush-interval-seconds:60}") long flushIntervalSeconds,
+                             @Value("${metrics.max-series:1000}") int maxSeries) {
+        this.sink = sink;
+        this.sources = sources;
+        this.namespace = namespace;
+        this.flushIntervalSeconds = flushIntervalSeconds;
+        this.maxSeries = maxSeries;
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, flushIntervalSeconds, flushIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    public void record(String metricName, StandardUnit unit, String dimensionName, String dimensionValue, double value) {
+        record(metricName, unit, List.of(Dimension.builder().name(dimensionName).value(dimensionValue).build()), value);
+    }
+
+    public void record(String metricName, StandardUnit unit, List<Dimension> dimensions, double value) {
+        SeriesKey key = new SeriesKey(metricName, unit, dimensions);
+        Series target = series.get(key);
+        if (target == null) {
+            if (series.size() >= maxSeries) {
+                dropped.increment();
+                return;
+            }
+            target = series.computeIfAbsent(key, k -> new Series());
+        }
+        target.add(value);
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    // Null when the last flush reached the sink
+    public String getLastFlushError() {
+        return lastFlushError;
+    }
+
+    /**
+     * Publishes everything recorded since the last flush. Returns the number of datums handed to the sink.
+     */
+    public int flush() {
+        Instant now = Instant.now();
+        List<MetricDatum> metricData = new ArrayList<>(series.size());
+        series.forEach((key, current) -> {
+            StatisticSet statistics = current.drain();
+            if (statistics == null) {
+                // Idle since the last flush; a sample racing with this removal is lost, which metrics can afford
+                series.remove(key, current);
+                return;
+            }
+            metricData.add(MetricDatum.builder()
+                    .metricName(key.metricName())
+                    .unit(key.unit())
+                    .dimensions(key.dimensions())
+                    .statisticValues(statistics)
+                    .timestamp(now)
+                    .build());
+        });
+
+        for (MetricsSource source : sources) {
+            try {
+                metricData.addAll(source.collect(now));
+            } catch (RuntimeException e) {
+                logger.error("Failed to collect metrics from {}: {}", source.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+
+        long droppedSamples = dropped.sumThenReset();
+        if (droppedSamples > 0) {
+            logger.warn("Dropped {} metric samples, series limit of {} reached", droppedSamples, maxSeries);
+        }
+        if (!metricData.isEmpty()) {
+            try {
+                sink.publish(namespace, metricData);
+            } catch (RuntimeException e) {
+                lastFlushError = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                throw e;
+            }
+        }
+        lastFlushError = null;
+        return metricData.size();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // Losing one interval is better than letting the exception cancel the schedule
+            logger.error("Failed to publish metrics: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        flushQuietly();
+    }
+
+    private record SeriesKey(String metricName, StandardUnit unit, List<Dimension> dimensions) {
+    }
+
+    private static final class Series {
+        private final LongAdder count = new LongAdder();
+        private final DoubleAdder sum = new DoubleAdder();
+        private final DoubleAccumulator min = new DoubleAccumulator(Math::min, Double.POSITIVE_INFINITY);
+        private final DoubleAccumulator max = new DoubleAccumulator(Math::max, Double.NEGATIVE_INFINITY);
+
+        // count goes last so a sample is never counted before its value is visible
+        void add(double value) {
+            min.accumulate(value);
+            max.accumulate(value);
+            sum.add(value);
+            count.increment();
+        }
+
+        StatisticSet drain() {
+            long sampleCount = count.sumThenReset();
+            if (sampleCount == 0) {
+                return null;
+            }
+            double total = sum.sumThenReset();
+            double minimum = min.getThenReset();
+            double maximum = max.getThenReset();
+            if (Double.isInfinite(minimum) || Double.isInfinite(maximum)) {
+                minimum = maximum = total / sampleCount;
+            }
+            return StatisticSet.builder()
+                    .sampleCount((double) sampleCount)
+                    .sum(total)
+                    .minimum(minimum)
+                    .maximum(maximum)
+                    .build();
+        }
+    }
+}
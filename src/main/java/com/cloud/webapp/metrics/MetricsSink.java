@@ -0,0 +1,13 @@
+package com.cloud.webapp.metrics;
+
+import software.amazon.awssdk.services.cloudwatch.model.MetricDatum;
+
+import java.util.List;
+
+/**
+ * Destination for aggregated metrics. Called from the aggregator's flush thread only, never on a request thread.
+ */
+public interface MetricsSink {
+
+    void publish(String namespace, List<MetricDatum> metricData);
+}
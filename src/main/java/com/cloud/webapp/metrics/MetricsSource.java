@@ -0,0 +1,14 @@
+package com.cloud.webapp.metrics;
+
+import software.amazon.awssdk.services.cloudwatch.model.MetricDatum;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Pre-aggregated metrics that the {@link MetricsAggregator} pulls and publishes on each flush.
+ */
+public interface MetricsSource {
+
+    List<MetricDatum> collect(Instant timestamp);
+}
@@ -0,0 +1,59 @@
+package com.cloud.webapp.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Mirrors timed operations into Micrometer (/actuator/metrics/operation.latency) when metrics.operations.micrometer=true
+@Component
+@ConditionalOnProperty(name = "metrics.operations.micrometer", havingValue = "true")
+public class MicrometerOperationMetrics implements OperationMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+    // Registering goes through the registry's meter lookup and builds tags each time, so it is done once per key
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    public MicrometerOperationMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void started(String operation, TimedOperation.Kind kind, int concurrent) {
+        inFlight.computeIfAbsent(operation, name ->
+                        meterRegistry.gauge("operation.in.flight", Tags.of("operation", name), new AtomicInteger()))
+                .incrementAndGet();
+    }
+
+    @Override
+    public void completed(String operation, TimedOperation.Kind kind, String outcome, long durationNanos) {
+        TimerKey key = new TimerKey(operation, kind, outcome);
+        Timer timer = timers.get(key);
+        if (timer == null) {
+            timer = timers.computeIfAbsent(key, this::register);
+        }
+        timer.record(durationNanos, TimeUnit.NANOSECONDS);
+        AtomicInteger concurrent = inFlight.get(operation);
+        if (concurrent != null) {
+            concurrent.decrementAndGet();
+        }
+    }
+
+    private Timer register(TimerKey key) {
+        return Timer.builder("operation.latency")
+                .tag("operation", key.operation())
+                .tag("kind", key.kind().name().toLowerCase())
+                .tag("outcome", key.outcome())
+                .register(meterRegistry);
+    }
+
+    private record TimerKey(String operation, TimedOperation.Kind kind, String outcome) {
+    }
+}
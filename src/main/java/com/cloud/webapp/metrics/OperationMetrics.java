@@ -0,0 +1,20 @@
+package com.cloud.webapp.metrics;
+
+/**
+ * Registry that receives timed operations from {@link OperationTimer}. Every bean implementing it is called,
+ * on the request thread, so implementations must not block.
+ */
+public interface OperationMetrics {
+
+    String SUCCESS = "success";
+
+    /**
+     * Called as the operation starts, with the number of calls of it now in flight (including this one).
+     */
+    void started(String operation, TimedOperation.Kind kind, int inFlight);
+
+    /**
+     * Called once per call; outcome is {@link #SUCCESS} or the simple name of the exception thrown.
+     */
+    void completed(String operation, TimedOperation.Kind kind, String outcome, long durationNanos);
+}
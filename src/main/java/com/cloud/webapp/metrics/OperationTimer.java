@@ -0,0 +1,111 @@
+package com.cloud.webapp.metrics;
+
+import com.cloud.webapp.profiling.OperationEvent;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared by the timing aspects: tracks in-flight calls per operation and reports every call,
+ * including failed ones, to the registered {@link OperationMetrics} and as a JFR {@link OperationEvent}.
+ */
+@Component
+public class OperationTimer {
+
+    private static final ThreadLocal<String> CURRENT_OPERATION = new ThreadLocal<>();
+
+    private final List<OperationMetrics> registries;
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    public OperationTimer(List<OperationMetrics> registries) {
+        this.registries = registries;
+    }
+
+    public Object time(String operation, TimedOperation.Kind kind, ProceedingJoinPoint joinPoint) throws Throwable {
+        AtomicInteger running = inFlight.computeIfAbsent(operation, k -> new AtomicInteger());
+        int concurrent = running.incrementAndGet();
+        for (OperationMetrics registry : registries) {
+            try {
+                registry.started(operation, kind, concurrent);
+            } catch (RuntimeException e) {
+                logger.warn("Metrics registry {} failed: {}", registry.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+
+        String enclosing = CURRENT_OPERATION.get();
+        CURRENT_OPERATION.set(operation);
+        OperationEvent event = new OperationEvent();
+        event.begin();
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable t) {
+            finish(operation, kind, t.getClass().getSimpleName(), start, event, running);
+            throw t;
+        } finally {
+            if (enclosing == null) {
+                CURRENT_OPERATION.remove();
+            } else {
+                CURRENT_OPERATION.set(enclosing);
+            }
+        }
+
+        // Asynchronous operations are timed until their future completes, not until the method returns
+        if (result instanceof CompletionStage<?> stage) {
+            stage.whenComplete((value, failure) -> finish(operation, kind, outcome(failure), start, event, running));
+        } else {
+            finish(operation, kind, OperationMetrics.SUCCESS, start, event, running);
+        }
+        return result;
+    }
+
+    private void finish(String operation, TimedOperation.Kind kind, String outcome, long start,
+                        OperationEvent event, AtomicInteger running) {
+        long duration = System.nanoTime() - start;
+        event.end();
+        if (event.shouldCommit()) {
+            event.kind = kind.name();
+            event.operation = operation;
+            event.outcome = outcome;
+            event.commit();
+        }
+        running.decrementAndGet();
+        for (OperationMetrics registry : registries) {
+            try {
+                registry.completed(operation, kind, outcome, duration);
+            } catch (RuntimeException e) {
+                logger.warn("Metrics registry {} failed: {}", registry.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+
+    private static String outcome(Throwable failure) {
+        if (failure == null) {
+            return OperationMetrics.SUCCESS;
+        }
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        return cause.getClass().getSimpleName();
+    }
+
+    /**
+     * Innermost timed operation running on this thread (e.g. {@code UserRepository.findByEmail}), or null.
+     */
+    public static String currentOperation() {
+        return CURRENT_OPERATION.get();
+    }
+
+    public int getInFlight(String operation) {
+        AtomicInteger running = inFlight.get(operation);
+        return running == null ? 0 : running.get();
+    }
+}
@@ -0,0 +1,48 @@
+package com.cloud.webapp.metrics;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// With metrics.operations.enabled=false this bean is absent, so annotated beans are not even proxied for it
+@Aspect
+@Component
+@ConditionalOnProperty(name = "metrics.operations.enabled", havingValue = "true", matchIfMissing = true)
+public class OperationTimingAspect {
+
+    private final OperationTimer operationTimer;
+    private final Map<Method, Operation> operations = new ConcurrentHashMap<>();
+
+    public OperationTimingAspect(OperationTimer operationTimer) {
+        this.operationTimer = operationTimer;
+    }
+
+    @Around("@annotation(com.cloud.webapp.metrics.TimedOperation) || @within(com.cloud.webapp.metrics.TimedOperation)")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Operation operation = operations.computeIfAbsent(method, m -> resolve(m, joinPoint.getTarget().getClass()));
+        return operationTimer.time(operation.name(), operation.kind(), joinPoint);
+    }
+
+    private static Operation resolve(Method method, Class<?> targetClass) {
+        TimedOperation timed = AnnotatedElementUtils.findMergedAnnotation(method, TimedOperation.class);
+        if (timed == null) {
+            timed = AnnotatedElementUtils.findMergedAnnotation(targetClass, TimedOperation.class);
+        }
+        String name = timed != null && !timed.value().isBlank()
+                ? timed.value()
+                : targetClass.getSimpleName() + "." + method.getName();
+        return new Operation(name, timed != null ? timed.kind() : TimedOperation.Kind.SERVICE);
+    }
+
+    private record Operation(String name, TimedOperation.Kind kind) {
+    }
+}
@@ -0,0 +1,46 @@
+package com.cloud.webapp.metrics;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Times every Spring Data repository call as {@code RepositoryName.method}, so database time no longer
+ * has to be stopwatched by hand in the services.
+ */
+@Aspect
+@Component
+@ConditionalOnExpression("${metrics.operations.enabled:true} and ${metrics.operations.repositories:true}")
+public class RepositoryTimingAspect {
+
+    private final OperationTimer operationTimer;
+    private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+    public RepositoryTimingAspect(OperationTimer operationTimer) {
+        this.operationTimer = operationTimer;
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        String repository = repositoryNames.computeIfAbsent(joinPoint.getTarget().getClass(), RepositoryTimingAspect::nameOf);
+        return operationTimer.time(repository + "." + joinPoint.getSignature().getName(),
+                TimedOperation.Kind.REPOSITORY, joinPoint);
+    }
+
+    private static String nameOf(Class<?> repositoryProxy) {
+        return Arrays.stream(ClassUtils.getAllInterfacesForClass(repositoryProxy))
+                .filter(Repository.class::isAssignableFrom)
+                .filter(type -> !type.getName().startsWith("org.springframework."))
+                .findFirst()
+                .map(Class::getSimpleName)
+                .orElse(repositoryProxy.getSimpleName());
+    }
+}
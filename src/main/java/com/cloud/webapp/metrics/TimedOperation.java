@@ -0,0 +1,31 @@
+package com.cloud.webapp.metrics;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Times a service method (or every public method of a class): latency, outcome and in-flight count are
+ * handed to every {@link OperationMetrics} bean, whether the call returns or throws.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface TimedOperation {
+
+    /**
+     * Operation name reported to the registries; defaults to {@code ClassName.methodName}.
+     */
+    String value() default "";
+
+    Kind kind() default Kind.SERVICE;
+
+    enum Kind {
+        SERVICE,
+        REPOSITORY,
+        // Outbound calls to S3, SNS, SendGrid
+        EXTERNAL
+    }
+}
@@ -0,0 +1,27 @@
+package com.cloud.webapp.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name(HttpRequestEvent.NAME)
+@Label("HTTP Request")
+@Category({"Webapp"})
+@Description("A request handled by a controller, from the first filter to the response")
+@StackTrace(false)
+public class HttpRequestEvent extends Event {
+
+    public static final String NAME = "com.cloud.webapp.HttpRequest";
+
+    @Label("Endpoint")
+    public String endpoint;
+
+    @Label("Status")
+    public int status;
+
+    @Label("Outcome")
+    public String outcome;
+}
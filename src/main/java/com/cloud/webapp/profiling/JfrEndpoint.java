@@ -0,0 +1,32 @@
+package com.cloud.webapp.profiling;
+
+import lombok.AllArgsConstructor;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+// GET /actuator/jfr for the current summary, POST /actuator/jfr/start and /actuator/jfr/stop (admins only)
+@Component
+@Endpoint(id = "jfr")
+@AllArgsConstructor
+public class JfrEndpoint {
+
+    private final JfrProfiler jfrProfiler;
+
+    @ReadOperation
+    public JfrProfiler.Summary summary() {
+        return jfrProfiler.summary();
+    }
+
+    @WriteOperation
+    public JfrProfiler.Summary control(@Selector String action) {
+        return switch (action) {
+            case "start" -> jfrProfiler.start();
+            case "stop" -> jfrProfiler.stop();
+            default -> throw new InvalidEndpointRequestException("Unknown action " + action, "Use start or stop");
+        };
+    }
+}
@@ -0,0 +1,170 @@
+package com.cloud.webapp.profiling;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * On-demand JFR recording of the webapp's own events, consumed in-process with event streaming and summarised
+ * as the operations with the most total time plus the slowest individual calls. Recordings stop by themselves
+ * after {@code profiling.jfr.max-duration-seconds}.
+ */
+@Component
+public class JfrProfiler {
+
+    private static final String REQUEST_KIND = "REQUEST";
+    private static final int TOP_OPERATIONS = 20;
+    private static final int SLOWEST_EVENTS = 10;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final long maxDurationSeconds;
+    private final Map<String, OperationStats> stats = new HashMap<>();
+    private final PriorityQueue<SlowEvent> slowest = new PriorityQueue<>(Comparator.comparingDouble(SlowEvent::durationMs));
+    private RecordingStream stream;
+    private Instant startedAt;
+    private Instant stoppedAt;
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    public JfrProfiler(@Value("${profiling.jfr.max-duration-seconds:300}") long maxDurationSeconds) {
+        this.maxDurationSeconds = maxDurationSeconds;
+    }
+
+    public synchronized Summary start() {
+        if (stream != null) {
+            return summary();
+        }
+        stats.clear();
+        slowest.clear();
+
+        RecordingStream recording = new RecordingStream();
+        recording.enable(OperationEvent.NAME).withoutStackTrace().withThreshold(Duration.ZERO);
+        recording.enable(HttpRequestEvent.NAME).withoutStackTrace().withThreshold(Duration.ZERO);
+        recording.onEvent(OperationEvent.NAME, event ->
+                accept(event.getString("kind"), event.getString("operation"), event.getString("outcome"), event));
+        recording.onEvent(HttpRequestEvent.NAME, event ->
+                accept(REQUEST_KIND, event.getString("endpoint"), event.getString("outcome"), event));
+        recording.startAsync();
+
+        stream = recording;
+        startedAt = Instant.now();
+        stoppedAt = null;
+        CompletableFuture.delayedExecutor(maxDurationSeconds, TimeUnit.SECONDS).execute(() -> stop(recording));
+        logger.info("JFR recording started, stops automatically after {} s", maxDurationSeconds);
+        return summary();
+    }
+
+    public Summary stop() {
+        RecordingStream recording;
+        synchronized (this) {
+            recording = stream;
+        }
+        if (recording != null) {
+            stop(recording);
+        }
+        return summary();
+    }
+
+    private void stop(RecordingStream recording) {
+        synchronized (this) {
+            if (stream != recording) {
+                return;
+            }
+            stream = null;
+            stoppedAt = Instant.now();
+        }
+        // Outside the lock: the stream thread may be waiting on it to deliver a last event
+        recording.close();
+        logger.info("JFR recording stopped");
+    }
+
+    private void accept(String kind, String operation, String outcome, RecordedEvent event) {
+        record(kind, operation, outcome, event.getDuration().toNanos(), event.getStartTime(),
+                event.getThread() != null ? event.getThread().getJavaName() : null);
+    }
+
+    synchronized void record(String kind, String operation, String outcome, long durationNanos, Instant startTime,
+                             String thread) {
+        stats.computeIfAbsent(kind + " " + operation, key -> new OperationStats(kind, operation))
+                .add(durationNanos, !"success".equals(outcome));
+
+        slowest.add(new SlowEvent(kind, operation, outcome, durationNanos / NANOS_PER_MILLI, startTime, thread));
+        if (slowest.size() > SLOWEST_EVENTS) {
+            slowest.poll();
+        }
+    }
+
+    public synchronized Summary summary() {
+        List<OperationSummary> operations = stats.values().stream()
+                .sorted(Comparator.comparingLong(OperationStats::totalNanos).reversed())
+                .limit(TOP_OPERATIONS)
+                .map(OperationStats::toSummary)
+                .toList();
+        List<SlowEvent> slowEvents = new ArrayList<>(slowest);
+        slowEvents.sort(Comparator.comparingDouble(SlowEvent::durationMs).reversed());
+        return new Summary(stream != null, startedAt, stoppedAt, operations, slowEvents);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stop();
+    }
+
+    public record Summary(boolean recording, Instant startedAt, Instant stoppedAt,
+                          List<OperationSummary> topOperations, List<SlowEvent> slowestEvents) {
+    }
+
+    public record OperationSummary(String kind, String operation, long count, long failures,
+                                   double totalMs, double meanMs, double maxMs) {
+    }
+
+    public record SlowEvent(String kind, String operation, String outcome, double durationMs,
+                            Instant startTime, String thread) {
+    }
+
+    private static final class OperationStats {
+        private final String kind;
+        private final String operation;
+        private long count;
+        private long failures;
+        private long totalNanos;
+        private long maxNanos;
+
+        private OperationStats(String kind, String operation) {
+            this.kind = kind;
+            this.operation = operation;
+        }
+
+        void add(long durationNanos, boolean failed) {
+            count++;
+            totalNanos += durationNanos;
+            maxNanos = Math.max(maxNanos, durationNanos);
+            if (failed) {
+                failures++;
+            }
+        }
+
+        long totalNanos() {
+            return totalNanos;
+        }
+
+        OperationSummary toSummary() {
+            return new OperationSummary(kind, operation, count, failures, totalNanos / NANOS_PER_MILLI,
+                    totalNanos / NANOS_PER_MILLI / count, maxNanos / NANOS_PER_MILLI);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.cloud.webapp.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name(OperationEvent.NAME)
+@Label("Operation")
+@Category({"Webapp"})
+@Description("A timed service, repository or outbound (S3, SNS, email) call")
+@StackTrace(false)
+public class OperationEvent extends Event {
+
+    public static final String NAME = "com.cloud.webapp.Operation";
+
+    @Label("Kind")
+    public String kind;
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Outcome")
+    public String outcome;
+}
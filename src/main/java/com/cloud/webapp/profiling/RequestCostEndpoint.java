@@ -0,0 +1,22 @@
+package com.cloud.webapp.profiling;
+
+import lombok.AllArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// GET /actuator/requestcost: allocation and CPU per endpoint since startup
+@Component
+@Endpoint(id = "requestcost")
+@AllArgsConstructor
+public class RequestCostEndpoint {
+
+    private final RequestCostTracker requestCostTracker;
+
+    @ReadOperation
+    public Map<String, RequestCostTracker.EndpointCost> requestCost() {
+        return requestCostTracker.snapshot();
+    }
+}
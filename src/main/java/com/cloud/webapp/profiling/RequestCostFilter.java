@@ -0,0 +1,77 @@
+package com.cloud.webapp.profiling;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+/**
+ * Measures the bytes allocated and CPU time consumed by the request thread for each request, per endpoint (method and route pattern).
+ * Work handed to other threads (async dispatch, hashing pool, S3 uploads) is not included.
+ * With {@code profiling.request-cost.header-enabled=true}, requests sending {@code X-Debug-Request-Cost: true}
+ * get the numbers back in the same header; those responses are buffered so the header can still be set.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@ConditionalOnProperty(name = "profiling.request-cost.enabled", havingValue = "true", matchIfMissing = true)
+public class RequestCostFilter extends OncePerRequestFilter {
+
+    public static final String DEBUG_HEADER = "X-Debug-Request-Cost";
+
+    private final RequestCostTracker requestCostTracker;
+    private final boolean headerEnabled;
+    private final com.sun.management.ThreadMXBean threads;
+    private final boolean allocationSupported;
+    private final boolean cpuSupported;
+
+    public RequestCostFilter(RequestCostTracker requestCostTracker,
+                             @Value("${profiling.request-cost.header-enabled:false}") boolean headerEnabled) {
+        this.requestCostTracker = requestCostTracker;
+        this.headerEnabled = headerEnabled;
+        this.threads = ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean ? bean : null;
+        this.allocationSupported = threads != null && threads.isThreadAllocatedMemorySupported();
+        this.cpuSupported = threads != null && threads.isCurrentThreadCpuTimeSupported();
+        if (allocationSupported && !threads.isThreadAllocatedMemoryEnabled()) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+        }
+        if (cpuSupported && !threads.isThreadCpuTimeEnabled()) {
+            threads.setThreadCpuTimeEnabled(true);
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean debug = headerEnabled && Boolean.parseBoolean(request.getHeader(DEBUG_HEADER));
+        ContentCachingResponseWrapper buffered = debug ? new ContentCachingResponseWrapper(response) : null;
+
+        long allocatedBefore = allocationSupported ? threads.getCurrentThreadAllocatedBytes() : 0;
+        long cpuBefore = cpuSupported ? threads.getCurrentThreadCpuTime() : 0;
+        try {
+            filterChain.doFilter(request, buffered != null ? buffered : response);
+        } finally {
+            long allocated = allocationSupported ? threads.getCurrentThreadAllocatedBytes() - allocatedBefore : -1;
+            long cpu = cpuSupported ? threads.getCurrentThreadCpuTime() - cpuBefore : -1;
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String endpoint = request.getMethod() + " " + (pattern != null ? pattern : "unmapped");
+            requestCostTracker.record(endpoint, allocated, cpu);
+
+            if (buffered != null) {
+                buffered.setHeader(DEBUG_HEADER, String.format(Locale.ROOT, "alloc=%dB; cpu=%.3fms", allocated, cpu / 1_000_000.0));
+                buffered.copyBodyToResponse();
+            }
+        }
+    }
+}
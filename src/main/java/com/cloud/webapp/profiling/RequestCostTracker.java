@@ -0,0 +1,70 @@
+package com.cloud.webapp.profiling;
+
+import com.cloud.webapp.metrics.MetricsAggregator;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.cloudwatch.model.StandardUnit;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-endpoint totals of the heap allocated and CPU time used by request threads, fed by {@link RequestCostFilter}.
+ * Every sample also goes to the metrics pipeline as RequestAllocatedBytes / RequestCpuTime.
+ */
+@Component
+public class RequestCostTracker {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final MetricsAggregator metricsAggregator;
+    private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+
+    public RequestCostTracker(MetricsAggregator metricsAggregator) {
+        this.metricsAggregator = metricsAggregator;
+    }
+
+    public void record(String endpoint, long allocatedBytes, long cpuNanos) {
+        endpoints.computeIfAbsent(endpoint, key -> new EndpointStats()).add(allocatedBytes, cpuNanos);
+        if (allocatedBytes >= 0) {
+            metricsAggregator.record("RequestAllocatedBytes", StandardUnit.BYTES, "Endpoint", endpoint, allocatedBytes);
+        }
+        if (cpuNanos >= 0) {
+            metricsAggregator.record("RequestCpuTime", StandardUnit.MILLISECONDS, "Endpoint", endpoint, cpuNanos / NANOS_PER_MILLI);
+        }
+    }
+
+    public Map<String, EndpointCost> snapshot() {
+        Map<String, EndpointCost> snapshot = new TreeMap<>();
+        endpoints.forEach((endpoint, stats) -> snapshot.put(endpoint, stats.toCost()));
+        return snapshot;
+    }
+
+    public record EndpointCost(long requests, long meanAllocatedBytes, long maxAllocatedBytes,
+                            double meanCpuMs, double maxCpuMs) {
+    }
+
+    private static final class EndpointStats {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder allocatedBytes = new LongAdder();
+        private final LongAccumulator maxAllocatedBytes = new LongAccumulator(Math::max, 0);
+        private final LongAdder cpuNanos = new LongAdder();
+        private final LongAccumulator maxCpuNanos = new LongAccumulator(Math::max, 0);
+
+        void add(long allocated, long cpu) {
+            requests.increment();
+            allocatedBytes.add(Math.max(allocated, 0));
+            maxAllocatedBytes.accumulate(allocated);
+            cpuNanos.add(Math.max(cpu, 0));
+            maxCpuNanos.accumulate(cpu);
+        }
+
+        EndpointCost toCost() {
+            long count = Math.max(requests.sum(), 1);
+            return new EndpointCost(requests.sum(), allocatedBytes.sum() / count, maxAllocatedBytes.get(),
+                    cpuNanos.sum() / NANOS_PER_MILLI / count, maxCpuNanos.get() / NANOS_PER_MILLI);
+        }
+    }
+}
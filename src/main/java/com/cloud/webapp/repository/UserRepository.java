@@ -1,11 +1,77 @@
 package com.cloud.webapp.repository;
 
 import com.cloud.webapp.entity.UserEntity;
+import com.cloud.webapp.repository.projection.UserPictureView;
+import com.cloud.webapp.repository.projection.UserProfileView;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface UserRepository extends JpaRepository<UserEntity, UUID> {
     Optional<UserEntity> findByEmail(String email);
     Optional<UserEntity> findByVerificationToken(String token);
+
+    @Transactional(readOnly = true)
+    @Query("select u.email from UserEntity u where u.email in :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    // Read paths select only the columns they return; nothing enters the persistence context
+    @Transactional(readOnly = true)
+    @Query("select new com.cloud.webapp.repository.projection.UserProfileView(" +
+            "u.id, u.first_name, u.last_name, u.email, u.account_created, u.account_updated, " +
+            "u.s3ObjectKey, u.imageUrl, u.verified) " +
+            "from UserEntity u where u.email = :email")
+    Optional<UserProfileView> findProfileByEmail(@Param("email") String email);
+
+    @Transactional(readOnly = true)
+    @Query("select new com.cloud.webapp.repository.projection.UserPictureView(" +
+            "u.id, u.s3ObjectKey, u.imageUrl, u.imageVariants, u.account_updated, u.verified) " +
+            "from UserEntity u where u.email = :email")
+    Optional<UserPictureView> findPictureByEmail(@Param("email") String email);
+
+    // Conditional GETs only need the row version; unverified users get no ETag
+    @Transactional(readOnly = true)
+    @Query("select u.account_updated from UserEntity u where u.email = :email and u.verified = true")
+    Optional<Instant> findVersionByEmail(@Param("email") String email);
+
+    // Compare-and-set: only while no picture is recorded and the pending key is still the one the caller saw, so of
+    // two uploads racing for the row exactly one gets it. Returns 0 for the loser.
+    @Modifying
+    @Transactional
+    @Query("update UserEntity u set u.pendingS3ObjectKey = :key where u.id = :id and u.s3ObjectKey is null " +
+            "and (u.pendingS3ObjectKey is null or u.pendingS3ObjectKey = :expected)")
+    int reservePictureKey(@Param("id") UUID id, @Param("key") String key, @Param("expected") String expectedPendingKey);
+
+    // Writes for a row the caller already loaded: the entity is detached by then (authentication loads it before any
+    // session is open), and save() would merge it, reading the row a second time. account_updated is passed in because
+    // bulk updates skip @UpdateTimestamp.
+    @Modifying
+    @Transactional
+    @Query("update UserEntity u set u.first_name = :firstName, u.last_name = :lastName, u.password = :password, " +
+            "u.account_updated = :updated where u.id = :id")
+    int updateDetails(@Param("id") UUID id, @Param("firstName") String firstName, @Param("lastName") String lastName,
+                      @Param("password") String password, @Param("updated") Instant updated);
+
+    // Records an upload only while it still holds the reservation; 0 when another upload took it over
+    @Modifying
+    @Transactional
+    @Query("update UserEntity u set u.s3ObjectKey = :key, u.imageUrl = :imageUrl, u.imageVariants = :variants, " +
+            "u.pendingS3ObjectKey = null, u.account_updated = :updated where u.id = :id and u.pendingS3ObjectKey = :key")
+    int recordPicture(@Param("id") UUID id, @Param("key") String s3ObjectKey, @Param("imageUrl") String imageUrl,
+                      @Param("variants") String imageVariants, @Param("updated") Instant updated);
+
+    @Modifying
+    @Transactional
+    @Query("update UserEntity u set u.s3ObjectKey = :key, u.imageUrl = :imageUrl, u.imageVariants = :variants, " +
+            "u.pendingS3ObjectKey = null, u.account_updated = :updated where u.id = :id")
+    int updatePicture(@Param("id") UUID id, @Param("key") String s3ObjectKey, @Param("imageUrl") String imageUrl,
+                      @Param("variants") String imageVariants, @Param("updated") Instant updated);
 }
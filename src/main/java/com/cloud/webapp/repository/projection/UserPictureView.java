@@ -0,0 +1,21 @@
+package com.cloud.webapp.repository.projection;
+
+import com.cloud.webapp.entity.UserEntity;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// Columns returned by GET /v1/user/self/pic
+public record UserPictureView(
+        UUID id,
+        String s3ObjectKey,
+        String imageUrl,
+        String imageVariants,
+        Instant account_updated,
+        boolean verified) {
+
+    public static UserPictureView from(UserEntity user) {
+        return new UserPictureView(user.getId(), user.getS3ObjectKey(), user.getImageUrl(),
+                user.getImageVariants(), user.getAccount_updated(), user.isVerified());
+    }
+}
@@ -0,0 +1,25 @@
+package com.cloud.webapp.repository.projection;
+
+import com.cloud.webapp.entity.UserEntity;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// Columns returned by GET /v1/user/self, without the password hash or verification token
+public record UserProfileView(
+        UUID id,
+        String first_name,
+        String last_name,
+        String email,
+        Instant account_created,
+        Instant account_updated,
+        String s3ObjectKey,
+        String imageUrl,
+        boolean verified) {
+
+    public static UserProfileView from(UserEntity user) {
+        return new UserProfileView(user.getId(), user.getFirst_name(), user.getLast_name(), user.getEmail(),
+                user.getAccount_created(), user.getAccount_updated(), user.getS3ObjectKey(), user.getImageUrl(),
+                user.isVerified());
+    }
+}
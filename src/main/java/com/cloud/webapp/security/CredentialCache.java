@@ -0,0 +1,105 @@
+package com.cloud.webapp.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Short-lived cache of Basic-auth credentials that already passed the BCrypt check.
+ * Entries are keyed by email and hold an HMAC of "email:password" under a per-process key,
+ * so raw passwords never sit in memory and a wrong password simply misses.
+ */
+@Component
+public class CredentialCache {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final Cache<String, CachedCredential> cache;
+    private final SecretKeySpec digestKey;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public CredentialCache(
+            @Value("${security.auth-cache.ttl-seconds:60}") long ttlSeconds,
+            @Value("${security.auth-cache.max-size:10000}") long maxSize) {
+        this(ttlSeconds, maxSize, Ticker.systemTicker());
+    }
+
+    CredentialCache(long ttlSeconds, long maxSize, Ticker ticker) {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.digestKey = new SecretKeySpec(key, HMAC_ALGORITHM);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .ticker(ticker)
+                .build();
+    }
+
+    public UserDetails getIfPresent(String email, String rawPassword) {
+        CachedCredential cached = cache.getIfPresent(email);
+        if (cached == null || !MessageDigest.isEqual(cached.digest(), digest(email, rawPassword))) {
+            return null;
+        }
+        return cached.principal();
+    }
+
+    // Taken before the credential lookup; put() is skipped if an invalidation happened in between
+    public long stamp() {
+        return invalidations.get();
+    }
+
+    public void put(String email, String rawPassword, UserDetails principal, long stamp) {
+        if (invalidations.get() != stamp) {
+            return;
+        }
+        cache.put(email, new CachedCredential(digest(email, rawPassword), principal));
+    }
+
+    // Drops the entry now and, inside a transaction, once more after commit so a login racing
+    // the password change cannot re-populate the cache with the old hash
+    public void invalidate(String email) {
+        evict(email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(email);
+                }
+            });
+        }
+    }
+
+    private void evict(String email) {
+        invalidations.incrementAndGet();
+        cache.invalidate(email);
+    }
+
+    private byte[] digest(String email, String rawPassword) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(digestKey);
+            mac.update(email.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) ':');
+            return mac.doFinal(rawPassword.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to digest credentials", e);
+        }
+    }
+
+    private record CachedCredential(byte[] digest, UserDetails principal) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.cloud.webapp.security;
+
+import com.cloud.webapp.entity.UserEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Optional;
+
+/**
+ * Holds the user row loaded by the authentication layer for the rest of the current request,
+ * so the service layer does not query the same user again. Outside a web request it is a no-op.
+ */
+@Component
+public class RequestUserContext {
+
+    private static final String USER_ATTRIBUTE = RequestUserContext.class.getName() + ".USER";
+
+    public void set(UserEntity user) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(USER_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    public Optional<UserEntity> get(String email) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return Optional.empty();
+        }
+        Object user = attributes.getAttribute(USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (user instanceof UserEntity userEntity && userEntity.getEmail().equals(email)) {
+            return Optional.of(userEntity);
+        }
+        return Optional.empty();
+    }
+}
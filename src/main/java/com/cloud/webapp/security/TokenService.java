@@ -0,0 +1,101 @@
+package com.cloud.webapp.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Issues and validates stateless access tokens of the form
+ * base64url(email|expiryEpochSeconds).base64url(HmacSHA256(payload)).
+ * Validation is a single HMAC over a short string and never touches the database.
+ */
+@Component
+public class TokenService {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private final SecretKeySpec signingKey;
+    private final long ttlSeconds;
+    private final ThreadLocal<Mac> macs;
+
+    public TokenService(
+            @Value("${security.token.secret:}") String secret,
+            @Value("${security.token.ttl-seconds:900}") long ttlSeconds) {
+        byte[] key;
+        if (secret == null || secret.isBlank()) {
+            logger.warn("security.token.secret is not set, tokens will only be valid on this instance");
+            key = new byte[32];
+            new SecureRandom().nextBytes(key);
+        } else {
+            key = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.signingKey = new SecretKeySpec(key, HMAC_ALGORITHM);
+        this.ttlSeconds = ttlSeconds;
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    public String issue(String email) {
+        long expiresAt = Instant.now().getEpochSecond() + ttlSeconds;
+        String payload = ENCODER.encodeToString((email + "|" + expiresAt).getBytes(StandardCharsets.UTF_8));
+        return payload + "." + ENCODER.encodeToString(sign(payload));
+    }
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    // Returns the email the token was issued to, or null if it is malformed, forged or expired
+    public String validate(String token) {
+        int separator = token.indexOf('.');
+        if (separator <= 0 || separator == token.length() - 1) {
+            return null;
+        }
+        String payload = token.substring(0, separator);
+        try {
+            byte[] signature = DECODER.decode(token.substring(separator + 1));
+            if (!MessageDigest.isEqual(signature, sign(payload))) {
+                return null;
+            }
+            String claims = new String(DECODER.decode(payload), StandardCharsets.UTF_8);
+            // Emails may legally contain '|', the expiry is always the last field
+            int expirySeparator = claims.lastIndexOf('|');
+            if (expirySeparator <= 0) {
+                return null;
+            }
+            long expiresAt = Long.parseLong(claims.substring(expirySeparator + 1));
+            if (Instant.now().getEpochSecond() >= expiresAt) {
+                return null;
+            }
+            return claims.substring(0, expirySeparator);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private byte[] sign(String payload) {
+        return macs.get().doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(signingKey);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialise token signer", e);
+        }
+    }
+}
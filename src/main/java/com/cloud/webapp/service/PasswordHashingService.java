@@ -0,0 +1,8 @@
+package com.cloud.webapp.service;
+
+import java.util.List;
+
+public interface PasswordHashingService {
+    String encode(String rawPassword);
+    List<String> encodeAll(List<String> rawPasswords);
+}
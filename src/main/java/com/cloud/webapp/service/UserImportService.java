@@ -0,0 +1,12 @@
+package com.cloud.webapp.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public interface UserImportService {
+    void importUsers(InputStream ndjsonUsers, OutputStream ndjsonResults) throws IOException;
+
+    // How long one import request may keep streaming before the container times it out
+    long getRequestTimeoutMillis();
+}
@@ -1,17 +1,32 @@
 package com.cloud.webapp.service;
 
+import com.cloud.webapp.DTO.PresignedUploadCompleteDTO;
+import com.cloud.webapp.DTO.PresignedUploadRequestDTO;
+import com.cloud.webapp.DTO.PresignedUploadResponseDTO;
 import com.cloud.webapp.DTO.UserImageResponseDTO;
 import com.cloud.webapp.DTO.UserRequestDTO;
 import com.cloud.webapp.DTO.UserResponseDTO;
 import com.cloud.webapp.entity.UserEntity;
+import com.cloud.webapp.service.image.ImageDiskCache;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
 public interface UserService {
     UserResponseDTO createUser(UserRequestDTO userRequestDTO);
     UserResponseDTO getUserByEmail(String email);
+    Optional<String> getProfileETag(String email);
+    Optional<String> getProfilePictureETag(String email);
+    Optional<String> getProfilePictureContentETag(String email, Integer size);
     UserResponseDTO updateUserDetails(UserRequestDTO userRequestDTO, String authenticatedEmail);
     UserImageResponseDTO uploadProfilePicture(String email, MultipartFile file);
+    CompletableFuture<UserImageResponseDTO> uploadProfilePictureAsync(String email, MultipartFile file);
     UserImageResponseDTO getProfilePicture(String email);
+    ImageDiskCache.CachedImage getProfilePictureContent(String email, Integer size);
     void deleteProfilePicture(String email);
+    CompletableFuture<Void> deleteProfilePictureAsync(String email);
+    PresignedUploadResponseDTO createProfilePictureUploadUrl(String email, PresignedUploadRequestDTO request);
+    UserImageResponseDTO completeProfilePictureUpload(String email, PresignedUploadCompleteDTO request);
     boolean verifyUserByToken(String token);
 }
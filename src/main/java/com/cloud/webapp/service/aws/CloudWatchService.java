@@ -1,79 +1,67 @@
 package com.cloud.webapp.service.aws;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.cloud.webapp.metrics.LatencyHistograms;
+import com.cloud.webapp.metrics.MetricsAggregator;
+import com.cloud.webapp.metrics.OperationMetrics;
+import com.cloud.webapp.metrics.TimedOperation;
+import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
-import software.amazon.awssdk.services.cloudwatch.CloudWatchClient;
-import software.amazon.awssdk.services.cloudwatch.model.*;
+import software.amazon.awssdk.services.cloudwatch.model.Dimension;
+import software.amazon.awssdk.services.cloudwatch.model.StandardUnit;
 
+import java.util.List;
 
+// Records into the in-process aggregator; CloudWatch is called in batches from its flush thread
 @Service
-public class CloudWatchService {
+@AllArgsConstructor
+public class CloudWatchService implements OperationMetrics {
 
-    private final CloudWatchClient cloudWatch;
-    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
 
-    public CloudWatchService() {
-        this.cloudWatch = CloudWatchClient.create();
-    }
-
-    public void incrementApiCall(String apiName) {
-        MetricDatum datum = MetricDatum.builder()
-                .metricName("ApiCallCount")
-                .unit(StandardUnit.COUNT)
-                .value(1.0)
-                .dimensions(Dimension.builder()
-                        .name("APIName")
-                        .value(apiName)
-                        .build())
-                .build();
+    private final MetricsAggregator metricsAggregator;
+    private final LatencyHistograms latencyHistograms;
 
-        PutMetricDataRequest request = PutMetricDataRequest.builder()
-                .namespace("YourApplicationNamespace")
-                .metricData(datum)
-                .build();
-
-        cloudWatch.putMetricData(request);
-        logger.info("Metric data sent for API call: {}", apiName);
+    @Override
+    public void started(String operation, TimedOperation.Kind kind, int inFlight) {
+        if (kind == TimedOperation.Kind.SERVICE) {
+            metricsAggregator.record("ApiConcurrency", StandardUnit.COUNT, "APIName", operation, inFlight);
+        }
     }
 
-    public void recordApiResponseTime(String apiName, long timeInMillis) {
-        MetricDatum datum = MetricDatum.builder()
-                .metricName("ApiResponseTime")
-                .unit(StandardUnit.MILLISECONDS)
-                .value((double) timeInMillis)
-                .dimensions(Dimension.builder()
-                        .name("APIName")
-                        .value(apiName)
-                        .build())
-                .build();
-
-        PutMetricDataRequest request = PutMetricDataRequest.builder()
-                .namespace("YourApplicationNamespace")
-                .metricData(datum)
-                .build();
+    @Override
+    public void completed(String operation, TimedOperation.Kind kind, String outcome, long durationNanos) {
+        if (kind == TimedOperation.Kind.EXTERNAL) {
+            metricsAggregator.record("ExternalCallTime", StandardUnit.MILLISECONDS, "Operation", operation,
+                    durationNanos / NANOS_PER_MILLI);
+            metricsAggregator.record("ExternalCallCount", StandardUnit.COUNT, dimensions("Operation", operation, outcome), 1.0);
+            return;
+        }
+        if (kind == TimedOperation.Kind.REPOSITORY) {
+            recordDatabaseQueryTime(operation, durationNanos);
+            metricsAggregator.record("DatabaseQueryCount", StandardUnit.COUNT, dimensions("QueryName", operation, outcome), 1.0);
+            return;
+        }
+        incrementApiCall(operation);
+        recordApiResponseTime(operation, durationNanos);
+        metricsAggregator.record("ApiOutcomeCount", StandardUnit.COUNT, dimensions("APIName", operation, outcome), 1.0);
+    }
 
-        cloudWatch.putMetricData(request);
-        logger.info("Response time metric sent for API call: {}. Time: {} ms", apiName, timeInMillis);
+    public void incrementApiCall(String apiName) {
+        metricsAggregator.record("ApiCallCount", StandardUnit.COUNT, "APIName", apiName, 1.0);
     }
 
-    public void recordDatabaseQueryTime(String queryName, long timeInMillis) {
-        MetricDatum datum = MetricDatum.builder()
-                .metricName("DatabaseQueryTime")
-                .unit(StandardUnit.MILLISECONDS)
-                .value((double) timeInMillis)
-                .dimensions(Dimension.builder()
-                        .name("QueryName")
-                        .value(queryName)
-                        .build())
-                .build();
+    // Durations are System.nanoTime() deltas
+    public void recordApiResponseTime(String apiName, long durationNanos) {
+        latencyHistograms.record(apiName, durationNanos);
+    }
 
-        PutMetricDataRequest request = PutMetricDataRequest.builder()
-                .namespace("YourApplicationNamespace")
-                .metricData(datum)
-                .build();
+    public void recordDatabaseQueryTime(String queryName, long durationNanos) {
+        metricsAggregator.record("DatabaseQueryTime", StandardUnit.MILLISECONDS, "QueryName", queryName,
+                durationNanos / NANOS_PER_MILLI);
+    }
 
-        cloudWatch.putMetricData(request);
-        logger.info("Database query time metric sent for query: {}. Time: {} ms", queryName, timeInMillis);
+    private static List<Dimension> dimensions(String name, String operation, String outcome) {
+        return List.of(Dimension.builder().name(name).value(operation).build(),
+                Dimension.builder().name("Outcome").value(outcome).build());
     }
 }
@@ -0,0 +1,76 @@
+package com.cloud.webapp.service.aws;
+
+import com.cloud.webapp.exceptions.Types.PayloadTooLargeException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Short-lived URLs that let clients move profile picture bytes to and from S3 directly, so uploads and
+ * downloads never pass through this service. The PUT URL is bound to one key, content type and length and
+ * carries {@code If-None-Match: *}, so it can neither overwrite an existing picture nor be reused for another file.
+ */
+@Service
+public class S3PresignService {
+
+    private final S3Presigner presigner;
+    private final String bucketName;
+    private final long maxUploadBytes;
+    private final Duration uploadTtl;
+    private final Duration downloadTtl;
+
+    public S3PresignService(S3Presigner presigner,
+                            @Value("${aws.bucketName}") String bucketName,
+                            @Value("${aws.s3.max-upload-bytes:10485760}") long maxUploadBytes,
+                            @Value("${aws.s3.presign.upload-ttl-seconds:300}") long uploadTtlSeconds,
+                            @Value("${aws.s3.presign.download-ttl-seconds:900}") long downloadTtlSeconds) {
+        this.presigner = presigner;
+        this.bucketName = bucketName;
+        this.maxUploadBytes = maxUploadBytes;
+        this.uploadTtl = Duration.ofSeconds(uploadTtlSeconds);
+        this.downloadTtl = Duration.ofSeconds(downloadTtlSeconds);
+    }
+
+    public PresignedPutObjectRequest presignUpload(String s3ObjectKey, String contentType, long contentLength) {
+        if (contentLength > maxUploadBytes) {
+            throw new PayloadTooLargeException("Profile picture", "size", maxUploadBytes);
+        }
+        PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+                .bucket(bucketName)
+                .key(s3ObjectKey)
+                .contentType(contentType)
+                .contentLength(contentLength)
+                .overrideConfiguration(override -> override.putHeader("If-None-Match", "*"))
+                .build();
+        return presigner.presignPutObject(presign -> presign
+                .signatureDuration(uploadTtl)
+                .putObjectRequest(putObjectRequest));
+    }
+
+    public String presignDownload(String s3ObjectKey) {
+        GetObjectRequest getObjectRequest = GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(s3ObjectKey)
+                .build();
+        return presigner.presignGetObject(presign -> presign
+                        .signatureDuration(downloadTtl)
+                        .getObjectRequest(getObjectRequest))
+                .url()
+                .toString();
+    }
+
+    // Changes every half download TTL, so a presigned URL is never reused with less than half its lifetime left
+    public long currentDownloadWindow() {
+        return Instant.now().getEpochSecond() / Math.max(1, downloadTtl.toSeconds() / 2);
+    }
+
+    public long getMaxUploadBytes() {
+        return maxUploadBytes;
+    }
+}
@@ -1,65 +1,445 @@
 package com.cloud.webapp.service.aws;
 
 import com.cloud.webapp.exceptions.Types.FieldAlreadyExistsException;
+import com.cloud.webapp.exceptions.Types.PayloadTooLargeException;
+import com.cloud.webapp.metrics.TimedOperation;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
-import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
-import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.*;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.BiFunction;
 
 @Service
 public class S3Service {
+    private static final String IF_NONE_MATCH = "If-None-Match";
+
     private final S3Client s3Client;
+    private final S3AsyncClient s3AsyncClient;
+    private final boolean asyncEnabled;
     private final String bucketName;
     private final Region region;
+    private final long maxUploadBytes;
+    private final long multipartThresholdBytes;
+    private final int partSizeBytes;
+    private final int maxPartsInFlight;
+    private final Duration orphanGrace;
+    private final ExecutorService uploadExecutor;
 
     public S3Service(
+            S3Client s3Client,
+            S3AsyncClient s3AsyncClient,
+            @Value("${aws.s3.async.enabled:true}") boolean asyncEnabled,
             @Value("${aws.region}") String region,
-            @Value("${aws.bucketName}") String bucketName) {
+            @Value("${aws.bucketName}") String bucketName,
+            @Value("${aws.s3.max-upload-bytes:10485760}") long maxUploadBytes,
+            @Value("${aws.s3.multipart.threshold-bytes:8388608}") long multipartThresholdBytes,
+            @Value("${aws.s3.multipart.part-size-bytes:5242880}") int partSizeBytes,
+            @Value("${aws.s3.multipart.max-parts-in-flight:4}") int maxPartsInFlight,
+            @Value("${aws.s3.multipart.threads:16}") int uploadThreads,
+            @Value("${aws.s3.orphan-grace-seconds:300}") long orphanGraceSeconds) {
+        this.s3Client = s3Client;
+        this.s3AsyncClient = s3AsyncClient;
+        this.asyncEnabled = asyncEnabled;
         this.region = Region.of(region);
         this.bucketName = bucketName;
-        this.s3Client = S3Client.builder()
-                .credentialsProvider(DefaultCredentialsProvider.create())
-                .region(this.region)
-                .build();
+        this.maxUploadBytes = maxUploadBytes;
+        this.multipartThresholdBytes = multipartThresholdBytes;
+        this.partSizeBytes = partSizeBytes;
+        this.maxPartsInFlight = maxPartsInFlight;
+        this.orphanGrace = Duration.ofSeconds(orphanGraceSeconds);
+        this.uploadExecutor = Executors.newFixedThreadPool(uploadThreads, runnable -> {
+            Thread thread = new Thread(runnable, "s3-upload");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
-    // Upload image to S3
-    public String uploadImage(String s3ObjectKey, MultipartFile imageFile) {
-        String folderPath = s3ObjectKey.substring(0, s3ObjectKey.lastIndexOf("/") + 1);
+    // Upload image to S3, streamed from the multipart file so the image is never held in the heap as a whole.
+    // The write is conditional (If-None-Match: *), so callers rely on the user row to know whether a picture exists
+    // and S3 itself rejects a second object at the same key; no listing is needed. derivedKeys are the objects made
+    // from an image at the key (its variants); they go too when an orphan there is reclaimed.
+    @TimedOperation(value = "S3.uploadImage", kind = TimedOperation.Kind.EXTERNAL)
+    public String uploadImage(String s3ObjectKey, MultipartFile imageFile, Collection<String> derivedKeys) {
+        if (imageFile.getSize() > maxUploadBytes) {
+            throw new PayloadTooLargeException("Profile picture", "size", maxUploadBytes);
+        }
+        try {
+            try {
+                putIfAbsent(s3ObjectKey, imageFile);
+            } catch (S3Exception e) {
+                if (!isPreconditionFailed(e) || !reclaimOrphan(s3ObjectKey, derivedKeys)) {
+                    throw uploadFailure(e, imageFile);
+                }
+                // Another upload can take the key between the reclaim and the retry
+                try {
+                    putIfAbsent(s3ObjectKey, imageFile);
+                } catch (S3Exception retryFailure) {
+                    throw uploadFailure(retryFailure, imageFile);
+                }
+            }
+            return getImageUrl(s3ObjectKey);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to upload image", e);
+        }
+    }
 
-        // Check if any file already exists in the folder
-        if (doesFolderContainFile(folderPath)) {
-            throw new FieldAlreadyExistsException("File", "file",imageFile.getName() );
+    private void putIfAbsent(String s3ObjectKey, MultipartFile imageFile) throws IOException {
+        try (InputStream content = imageFile.getInputStream()) {
+            if (imageFile.getSize() >= multipartThresholdBytes) {
+                uploadMultipart(s3ObjectKey, imageFile.getContentType(), content, imageFile.getSize());
+            } else {
+                s3Client.putObject(putRequest(s3ObjectKey, imageFile), RequestBody.fromInputStream(content, imageFile.getSize()));
+            }
         }
+    }
 
+    /**
+     * An object at a key the caller's user row does not record is either an upload whose DB save is still in flight,
+     * or one whose save never happened (the process died in between, or a presigned upload was never completed).
+     * Objects older than {@code aws.s3.orphan-grace-seconds} can only be the latter and are deleted, derived objects
+     * first, so the key can be written again. Returns false while the object is still within the grace period.
+     */
+    @TimedOperation(value = "S3.reclaimOrphan", kind = TimedOperation.Kind.EXTERNAL)
+    public boolean reclaimOrphan(String s3ObjectKey, Collection<String> derivedKeys) {
         try {
-            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+            HeadObjectResponse existing = s3Client.headObject(HeadObjectRequest.builder()
                     .bucket(bucketName)
                     .key(s3ObjectKey)
-                    .contentType(imageFile.getContentType())
-                    .build();
+                    .build());
+            if (!isOrphan(existing)) {
+                return false;
+            }
+            derivedKeys.forEach(this::deleteImage);
+            deleteImage(s3ObjectKey);
+            return true;
+        } catch (NoSuchKeyException e) {
+            return true;
+        }
+    }
+
+    public boolean isAsyncEnabled() {
+        return asyncEnabled;
+    }
 
-            s3Client.putObject(putObjectRequest,
-                    software.amazon.awssdk.core.sync.RequestBody.fromBytes(imageFile.getBytes()));
+    // Same flow as uploadImage on the async client; no caller thread waits on S3.
+    // Small bodies are read from the spooled upload on an upload thread, in chunks, as Netty asks for it;
+    // from the multipart threshold up the parts are read on an upload thread and sent with the async client.
+    @TimedOperation(value = "S3.uploadImage", kind = TimedOperation.Kind.EXTERNAL)
+    public CompletableFuture<String> uploadImageAsync(String s3ObjectKey, MultipartFile imageFile,
+                                                      Collection<String> derivedKeys) {
+        if (imageFile.getSize() > maxUploadBytes) {
+            return CompletableFuture.failedFuture(new PayloadTooLargeException("Profile picture", "size", maxUploadBytes));
+        }
+        return putIfAbsentAsync(s3ObjectKey, imageFile)
+                .exceptionallyCompose(failure -> {
+                    Throwable cause = unwrap(failure);
+                    if (cause instanceof S3Exception e && isPreconditionFailed(e)) {
+                        return reclaimOrphanAsync(s3ObjectKey, derivedKeys).thenCompose(reclaimed -> {
+                            if (!reclaimed) {
+                                throw new FieldAlreadyExistsException("File", "file", imageFile.getName());
+                            }
+                            return putIfAbsentAsync(s3ObjectKey, imageFile).exceptionallyCompose(retryFailure ->
+                                    CompletableFuture.failedFuture(uploadFailure(unwrap(retryFailure), imageFile)));
+                        });
+                    }
+                    return CompletableFuture.failedFuture(uploadFailure(cause, imageFile));
+                })
+                .thenApply(response -> getImageUrl(s3ObjectKey));
+    }
 
-            return getImageUrl(s3ObjectKey);
+    private CompletableFuture<Void> putIfAbsentAsync(String s3ObjectKey, MultipartFile imageFile) {
+        InputStream content;
+        try {
+            content = imageFile.getInputStream();
         } catch (IOException e) {
-            throw new RuntimeException("Failed to upload image", e);
+            return CompletableFuture.failedFuture(new RuntimeException("Failed to upload image", e));
+        }
+        CompletableFuture<Void> upload = imageFile.getSize() >= multipartThresholdBytes
+                ? uploadMultipartAsync(s3ObjectKey, imageFile.getContentType(), content, imageFile.getSize())
+                : s3AsyncClient.putObject(putRequest(s3ObjectKey, imageFile),
+                                AsyncRequestBody.fromInputStream(content, imageFile.getSize(), uploadExecutor))
+                        .thenApply(response -> null);
+        return upload.whenComplete((response, failure) -> closeQuietly(content));
+    }
+
+    private CompletableFuture<Boolean> reclaimOrphanAsync(String s3ObjectKey, Collection<String> derivedKeys) {
+        return s3AsyncClient.headObject(HeadObjectRequest.builder()
+                        .bucket(bucketName)
+                        .key(s3ObjectKey)
+                        .build())
+                .thenCompose(existing -> isOrphan(existing)
+                        ? CompletableFuture.allOf(derivedKeys.stream().map(this::deleteImageAsync).toArray(CompletableFuture[]::new))
+                                .thenCompose(derivedDeleted -> deleteImageAsync(s3ObjectKey))
+                                .thenApply(deleted -> true)
+                        : CompletableFuture.completedFuture(false))
+                .exceptionally(failure -> {
+                    if (unwrap(failure) instanceof NoSuchKeyException) {
+                        return true;
+                    }
+                    throw failure instanceof CompletionException completion ? completion : new CompletionException(failure);
+                });
+    }
+
+    @TimedOperation(value = "S3.deleteImage", kind = TimedOperation.Kind.EXTERNAL)
+    public CompletableFuture<Void> deleteImageAsync(String s3ObjectKey) {
+        return s3AsyncClient.deleteObject(DeleteObjectRequest.builder()
+                        .bucket(bucketName)
+                        .key(s3ObjectKey)
+                        .build())
+                .thenApply(response -> null);
+    }
+
+    private PutObjectRequest putRequest(String s3ObjectKey, MultipartFile imageFile) {
+        return PutObjectRequest.builder()
+                .bucket(bucketName)
+                .key(s3ObjectKey)
+                .contentType(imageFile.getContentType())
+                .contentLength(imageFile.getSize())
+                .overrideConfiguration(override -> override.putHeader(IF_NONE_MATCH, "*"))
+                .build();
+    }
+
+    private boolean isOrphan(HeadObjectResponse existing) {
+        return existing.lastModified() != null && existing.lastModified().isBefore(Instant.now().minus(orphanGrace));
+    }
+
+    // 412: an object already exists at the key
+    private static boolean isPreconditionFailed(S3Exception e) {
+        return e.statusCode() == 412;
+    }
+
+    // 412, or 409 while another conditional write to the same key is in progress
+    private static boolean isExistingObject(S3Exception e) {
+        return e.statusCode() == 409 || e.statusCode() == 412;
+    }
+
+    // A conflict at the key is the caller's picture already existing; anything else is passed on as it is
+    private static RuntimeException uploadFailure(S3Exception failure, MultipartFile imageFile) {
+        return isExistingObject(failure) ? new FieldAlreadyExistsException("File", "file", imageFile.getName()) : failure;
+    }
+
+    private static Throwable uploadFailure(Throwable failure, MultipartFile imageFile) {
+        return failure instanceof S3Exception e ? uploadFailure(e, imageFile) : failure;
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+
+    private static void closeQuietly(InputStream content) {
+        try {
+            content.close();
+        } catch (IOException e) {
+            // Nothing left to read from it
+        }
+    }
+
+    // Parts are read one at a time and at most maxPartsInFlight are buffered, so heap use is capped per upload
+    private void uploadMultipart(String s3ObjectKey, String contentType, InputStream content, long size) throws IOException {
+        String uploadId = s3Client.createMultipartUpload(createMultipartRequest(s3ObjectKey, contentType)).uploadId();
+
+        List<CompletableFuture<CompletedPart>> parts = new ArrayList<>();
+        try {
+            List<CompletedPart> completedParts = uploadParts(content, size, parts, (partNumber, part) ->
+                    CompletableFuture.supplyAsync(() -> completedPart(partNumber, s3Client.uploadPart(
+                            uploadPartRequest(s3ObjectKey, uploadId, partNumber, part), RequestBody.fromBytes(part))),
+                            uploadExecutor));
+            s3Client.completeMultipartUpload(completeMultipartRequest(s3ObjectKey, uploadId, completedParts));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abortMultipart(s3ObjectKey, uploadId, parts);
+            throw new IOException("Interrupted while uploading " + s3ObjectKey, e);
+        } catch (IOException | RuntimeException e) {
+            abortMultipart(s3ObjectKey, uploadId, parts);
+            if (e instanceof CompletionException && e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // The async client sends the parts; reading them still blocks, so the loop runs on an upload thread and only ever
+    // waits on the SDK's own completions, never on another upload thread
+    private CompletableFuture<Void> uploadMultipartAsync(String s3ObjectKey, String contentType, InputStream content, long size) {
+        return s3AsyncClient.createMultipartUpload(createMultipartRequest(s3ObjectKey, contentType))
+                .thenComposeAsync(created -> {
+                    String uploadId = created.uploadId();
+                    List<CompletableFuture<CompletedPart>> parts = new ArrayList<>();
+                    CompletableFuture<CompleteMultipartUploadResponse> completed;
+                    try {
+                        List<CompletedPart> completedParts = uploadParts(content, size, parts, (partNumber, part) ->
+                                s3AsyncClient.uploadPart(uploadPartRequest(s3ObjectKey, uploadId, partNumber, part),
+                                                AsyncRequestBody.fromBytes(part))
+                                        .thenApply(response -> completedPart(partNumber, response)));
+                        completed = s3AsyncClient.completeMultipartUpload(
+                                completeMultipartRequest(s3ObjectKey, uploadId, completedParts));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        completed = CompletableFuture.failedFuture(new IOException("Interrupted while uploading " + s3ObjectKey, e));
+                    } catch (IOException | RuntimeException e) {
+                        completed = CompletableFuture.failedFuture(unwrap(e));
+                    }
+                    return completed.exceptionallyCompose(failure -> abortMultipartAsync(s3ObjectKey, uploadId, parts)
+                            .thenCompose(aborted -> CompletableFuture.<CompleteMultipartUploadResponse>failedFuture(failure)));
+                }, uploadExecutor)
+                .thenApply(response -> null);
+    }
+
+    // Stops reading at the first failed part; the caller aborts the upload
+    private List<CompletedPart> uploadParts(InputStream content, long size, List<CompletableFuture<CompletedPart>> parts,
+                                            BiFunction<Integer, byte[], CompletableFuture<CompletedPart>> uploadPart)
+            throws IOException, InterruptedException {
+        Semaphore inFlight = new Semaphore(maxPartsInFlight);
+        int partNumber = 1;
+        for (long offset = 0; offset < size; offset += partSizeBytes, partNumber++) {
+            inFlight.acquire();
+            if (parts.stream().anyMatch(CompletableFuture::isCompletedExceptionally)) {
+                inFlight.release();
+                break;
+            }
+            byte[] part;
+            try {
+                part = content.readNBytes((int) Math.min(partSizeBytes, size - offset));
+            } catch (IOException e) {
+                inFlight.release();
+                throw e;
+            }
+            if (part.length == 0) {
+                inFlight.release();
+                throw new IOException("Upload ended after " + offset + " of " + size + " bytes");
+            }
+            parts.add(uploadPart.apply(partNumber, part)
+                    .whenComplete((completed, failure) -> inFlight.release()));
+        }
+
+        List<CompletedPart> completedParts = new ArrayList<>(parts.size());
+        for (CompletableFuture<CompletedPart> part : parts) {
+            completedParts.add(part.join());
+        }
+        return completedParts;
+    }
+
+    private CreateMultipartUploadRequest createMultipartRequest(String s3ObjectKey, String contentType) {
+        return CreateMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(s3ObjectKey)
+                .contentType(contentType)
+                .build();
+    }
+
+    private UploadPartRequest uploadPartRequest(String s3ObjectKey, String uploadId, int partNumber, byte[] part) {
+        return UploadPartRequest.builder()
+                .bucket(bucketName)
+                .key(s3ObjectKey)
+                .uploadId(uploadId)
+                .partNumber(partNumber)
+                .contentLength((long) part.length)
+                .build();
+    }
+
+    private CompleteMultipartUploadRequest completeMultipartRequest(String s3ObjectKey, String uploadId,
+                                                                    List<CompletedPart> completedParts) {
+        return CompleteMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(s3ObjectKey)
+                .uploadId(uploadId)
+                .multipartUpload(CompletedMultipartUpload.builder().parts(completedParts).build())
+                .overrideConfiguration(override -> override.putHeader(IF_NONE_MATCH, "*"))
+                .build();
+    }
+
+    private AbortMultipartUploadRequest abortMultipartRequest(String s3ObjectKey, String uploadId) {
+        return AbortMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(s3ObjectKey)
+                .uploadId(uploadId)
+                .build();
+    }
+
+    private static CompletedPart completedPart(int partNumber, UploadPartResponse response) {
+        return CompletedPart.builder().partNumber(partNumber).eTag(response.eTag()).build();
+    }
+
+    // Aborting releases the parts S3 already stored, which would otherwise be billed indefinitely
+    private void abortMultipart(String s3ObjectKey, String uploadId, List<CompletableFuture<CompletedPart>> parts) {
+        parts.forEach(part -> part.cancel(true));
+        try {
+            s3Client.abortMultipartUpload(abortMultipartRequest(s3ObjectKey, uploadId));
+        } catch (SdkException e) {
+            // The bucket's lifecycle rule for incomplete multipart uploads is the backstop
+        }
+    }
+
+    // Completes once the abort is done either way; the original failure is what the caller reports
+    private CompletableFuture<Void> abortMultipartAsync(String s3ObjectKey, String uploadId,
+                                                        List<CompletableFuture<CompletedPart>> parts) {
+        parts.forEach(part -> part.cancel(true));
+        return s3AsyncClient.abortMultipartUpload(abortMultipartRequest(s3ObjectKey, uploadId))
+                .handle((response, failure) -> null);
+    }
+
+    // Derived images are regenerated from the original, so they are written unconditionally
+    @TimedOperation(value = "S3.putVariant", kind = TimedOperation.Kind.EXTERNAL)
+    public void putVariant(String s3ObjectKey, String contentType, byte[] content) {
+        s3Client.putObject(PutObjectRequest.builder()
+                .bucket(bucketName)
+                .key(s3ObjectKey)
+                .contentType(contentType)
+                .contentLength((long) content.length)
+                .build(), RequestBody.fromBytes(content));
+    }
+
+    // Caller closes the stream; it reads straight from the connection
+    @TimedOperation(value = "S3.openImage", kind = TimedOperation.Kind.EXTERNAL)
+    public ResponseInputStream<GetObjectResponse> openImage(String s3ObjectKey) {
+        return s3Client.getObject(GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(s3ObjectKey)
+                .build());
+    }
+
+    // Metadata of an uploaded image, or empty when nothing is stored at the key
+    @TimedOperation(value = "S3.headImage", kind = TimedOperation.Kind.EXTERNAL)
+    public Optional<HeadObjectResponse> findImage(String s3ObjectKey) {
+        try {
+            return Optional.of(s3Client.headObject(HeadObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(s3ObjectKey)
+                    .build()));
+        } catch (NoSuchKeyException e) {
+            return Optional.empty();
         }
     }
 
-    // Get image URL
+    // Canonical object URL stored on the user row; clients are handed presigned URLs (see S3PresignService)
     public String getImageUrl(String s3ObjectKey) {
         return String.format("https://%s.s3.%s.amazonaws.com/%s", bucketName, region.id(), s3ObjectKey);
     }
 
     // Delete image from S3
+    @TimedOperation(value = "S3.deleteImage", kind = TimedOperation.Kind.EXTERNAL)
     public void deleteImage(String s3ObjectKey) {
         DeleteObjectRequest deleteObjectRequest = DeleteObjectRequest.builder()
                 .bucket(bucketName)
@@ -69,18 +449,13 @@ public class S3Service {
         s3Client.deleteObject(deleteObjectRequest);
     }
 
-    // Check if folder contains any file
-    private boolean doesFolderContainFile(String folderPath) {
-        try {
-            ListObjectsV2Request listObjectsRequest = ListObjectsV2Request.builder()
-                    .bucket(bucketName)
-                    .prefix(folderPath)
-                    .maxKeys(1)
-                    .build();
-            ListObjectsV2Response listObjectsResponse = s3Client.listObjectsV2(listObjectsRequest);
-            return !listObjectsResponse.contents().isEmpty();
-        } catch (SdkClientException e) {
-            throw new RuntimeException("Error checking if folder contains files in S3", e);
-        }
+    // Cheap reachability and permission check for the health monitor
+    public void checkBucket() {
+        s3Client.headBucket(HeadBucketRequest.builder().bucket(bucketName).build());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        uploadExecutor.shutdownNow();
     }
 }
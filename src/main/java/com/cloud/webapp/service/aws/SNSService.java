@@ -1,8 +1,13 @@
 package com.cloud.webapp.service.aws;
 
 import com.amazonaws.services.sns.AmazonSNS;
+import com.amazonaws.services.sns.model.GetTopicAttributesRequest;
+import com.amazonaws.services.sns.model.PublishBatchRequest;
+import com.amazonaws.services.sns.model.PublishBatchRequestEntry;
+import com.amazonaws.services.sns.model.PublishBatchResult;
 import com.amazonaws.services.sns.model.PublishRequest;
 import com.amazonaws.services.sns.model.PublishResult;
+import com.cloud.webapp.metrics.TimedOperation;
 import lombok.AllArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,6 +15,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Service
 public class SNSService {
 
@@ -19,10 +27,12 @@ public class SNSService {
     @Autowired
     private AmazonSNS snsClient;
     private static final Logger logger = LoggerFactory.getLogger(SNSService.class);
+    // SNS accepts at most 10 entries per PublishBatch call
+    private static final int MAX_BATCH_ENTRIES = 10;
 
+    @TimedOperation(value = "SNS.publishToTopic", kind = TimedOperation.Kind.EXTERNAL)
     public void publishToTopic(String message) {
-        logger.info("Preparing to publish message to SNS topic: {}", snsTopicArn);
-        logger.info("Message content: {}", message);
+        logger.debug("Preparing to publish message to SNS topic: {}", snsTopicArn);
         try {
             PublishRequest publishRequest = new PublishRequest(snsTopicArn, message);
             PublishResult result = snsClient.publish(publishRequest);
@@ -32,4 +42,32 @@ public class SNSService {
             logger.error("Failed to publish message to SNS topic", e);
         }
     }
+
+    @TimedOperation(value = "SNS.publishBatchToTopic", kind = TimedOperation.Kind.EXTERNAL)
+    public void publishBatchToTopic(List<String> messages) {
+        for (int start = 0; start < messages.size(); start += MAX_BATCH_ENTRIES) {
+            List<String> chunk = messages.subList(start, Math.min(start + MAX_BATCH_ENTRIES, messages.size()));
+            List<PublishBatchRequestEntry> entries = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                entries.add(new PublishBatchRequestEntry()
+                        .withId(Integer.toString(i))
+                        .withMessage(chunk.get(i)));
+            }
+            try {
+                PublishBatchResult result = snsClient.publishBatch(new PublishBatchRequest()
+                        .withTopicArn(snsTopicArn)
+                        .withPublishBatchRequestEntries(entries));
+                if (!result.getFailed().isEmpty()) {
+                    logger.error("{} of {} messages failed to publish to SNS topic", result.getFailed().size(), chunk.size());
+                }
+            } catch (Exception e) {
+                logger.error("Failed to publish message batch to SNS topic", e);
+            }
+        }
+    }
+
+    // Cheap reachability and permission check for the health monitor
+    public void checkTopic() {
+        snsClient.getTopicAttributes(new GetTopicAttributesRequest(snsTopicArn));
+    }
 }
@@ -0,0 +1,166 @@
+package com.cloud.webapp.service.image;
+
+import com.cloud.webapp.exceptions.Types.ResourceNotFoundException;
+import com.cloud.webapp.service.aws.S3Service;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Read-through cache of picture bytes on local disk, in front of S3. Entries are weighed by file size and evicted
+ * once {@code image.cache.max-bytes} is exceeded; concurrent misses for the same object share one S3 download.
+ * Callers pass a version with the key (the user's account_updated), so a replaced picture is a different entry and
+ * stale bytes are never served, here or on another instance. The ETag is derived from that same key and version, so
+ * it is known before anything is downloaded and a revalidation can be answered with a 304 on a cold cache. Evicted
+ * files are deleted after a delay so responses still streaming them are not cut short.
+ */
+@Component
+public class ImageDiskCache {
+
+    private static final String FILE_SUFFIX = ".img";
+    private static final String PARTIAL_SUFFIX = FILE_SUFFIX + ".part";
+
+    private final S3Service s3Service;
+    private final Path directory;
+    private final long deleteDelaySeconds;
+    private final AsyncCache<String, CachedImage> cache;
+    private final ExecutorService downloadExecutor;
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    public ImageDiskCache(S3Service s3Service,
+                          @Value("${image.cache.directory:${java.io.tmpdir}/webapp-image-cache}") String directory,
+                          @Value("${image.cache.max-bytes:536870912}") long maxBytes,
+                          @Value("${image.cache.download-threads:8}") int downloadThreads,
+                          @Value("${image.cache.delete-delay-seconds:30}") long deleteDelaySeconds) throws IOException {
+        this.s3Service = s3Service;
+        this.directory = Path.of(directory);
+        this.deleteDelaySeconds = deleteDelaySeconds;
+        this.downloadExecutor = Executors.newFixedThreadPool(downloadThreads, runnable -> {
+            Thread thread = new Thread(runnable, "image-cache");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Files left by a previous run are not tracked, so they are removed rather than counted.
+        // Only the cache's own file names are touched, in case the directory is shared
+        Files.createDirectories(this.directory);
+        try (Stream<Path> leftovers = Files.list(this.directory)) {
+            leftovers.filter(ImageDiskCache::isCacheFile).forEach(ImageDiskCache::deleteQuietly);
+        }
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, CachedImage image) -> (int) Math.min(Integer.MAX_VALUE, image.length()))
+                .executor(downloadExecutor)
+                .removalListener(this::onRemoval)
+                .buildAsync();
+    }
+
+    public CachedImage get(String s3ObjectKey, String version) {
+        String key = cacheKey(s3ObjectKey, version);
+        CachedImage image = load(key, s3ObjectKey, version);
+        // The file can vanish underneath the cache (tmp cleaners); drop the entry and fetch it again
+        if (!Files.exists(image.file())) {
+            cache.synchronous().asMap().remove(key, image);
+            image = load(key, s3ObjectKey, version);
+        }
+        return image;
+    }
+
+    /**
+     * Strong ETag of the bytes {@link #get} returns for this key and version. Objects are never overwritten in place
+     * (a new picture bumps the version), so equal keys and versions always mean equal bytes.
+     */
+    public static String etag(String s3ObjectKey, String version) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(cacheKey(s3ObjectKey, version).getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(digest) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String cacheKey(String s3ObjectKey, String version) {
+        return s3ObjectKey + "@" + version;
+    }
+
+    private CachedImage load(String key, String s3ObjectKey, String version) {
+        try {
+            return cache.get(key, (ignored, executor) ->
+                            CompletableFuture.supplyAsync(() -> download(s3ObjectKey, version), executor))
+                    .join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private CachedImage download(String s3ObjectKey, String version) {
+        Path target = directory.resolve(UUID.randomUUID() + FILE_SUFFIX);
+        Path partial = directory.resolve(target.getFileName() + ".part");
+        try (ResponseInputStream<GetObjectResponse> object = s3Service.openImage(s3ObjectKey)) {
+            long length = Files.copy(object, partial);
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+            return new CachedImage(target, length, etag(s3ObjectKey, version), object.response().contentType());
+        } catch (NoSuchKeyException e) {
+            deleteQuietly(partial);
+            throw new ResourceNotFoundException("Profile Pic", "s3ObjectKey", s3ObjectKey);
+        } catch (IOException e) {
+            deleteQuietly(partial);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean isCacheFile(Path file) {
+        String name = file.getFileName().toString();
+        return name.endsWith(FILE_SUFFIX) || name.endsWith(PARTIAL_SUFFIX);
+    }
+
+    private void onRemoval(String key, CachedImage image, RemovalCause cause) {
+        if (image == null) {
+            return;
+        }
+        logger.debug("Image cache dropped {} ({})", key, cause);
+        CompletableFuture.runAsync(() -> deleteQuietly(image.file()),
+                CompletableFuture.delayedExecutor(deleteDelaySeconds, TimeUnit.SECONDS, downloadExecutor));
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // Cleared on the next start
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        downloadExecutor.shutdownNow();
+    }
+
+    public record CachedImage(Path file, long length, String etag, String contentType) {
+    }
+}
@@ -0,0 +1,158 @@
+package com.cloud.webapp.service.image;
+
+import com.cloud.webapp.metrics.TimedOperation;
+import com.cloud.webapp.service.aws.S3Service;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Resized copies of a profile picture for clients that only need an avatar. Each upload is decoded once, subsampled
+ * to about twice the largest variant, and every size is then scaled, encoded and stored as its own task on a bounded
+ * pool. At most {@code image.variants.max-concurrent-jobs} decoded sources are held at a time, so heap use is capped
+ * at roughly jobs x (2 x largest size)^2 x 4 bytes however large or numerous the uploads are.
+ */
+@Service
+public class ImageVariantService {
+
+    private final S3Service s3Service;
+    private final int[] sizes;
+    private final long maxSourcePixels;
+    private final float jpegQuality;
+    private final Semaphore jobPermits;
+    private final ThreadPoolExecutor variantExecutor;
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    public ImageVariantService(S3Service s3Service,
+                               @Value("${image.variants.sizes:64,256}") int[] sizes,
+                               @Value("${image.variants.threads:4}") int threads,
+                               @Value("${image.variants.max-queued:32}") int maxQueued,
+                               @Value("${image.variants.max-concurrent-jobs:4}") int maxConcurrentJobs,
+                               @Value("${image.variants.max-source-pixels:40000000}") long maxSourcePixels,
+                               @Value("${image.variants.jpeg-quality:0.85}") float jpegQuality) {
+        this.s3Service = s3Service;
+        this.sizes = Arrays.stream(sizes).distinct().sorted().toArray();
+        this.maxSourcePixels = maxSourcePixels;
+        this.jpegQuality = jpegQuality;
+        this.jobPermits = new Semaphore(maxConcurrentJobs);
+        // A full queue makes the submitting thread resize the variant itself instead of queueing more work
+        this.variantExecutor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(maxQueued), runnable -> {
+                    Thread thread = new Thread(runnable, "image-variant");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Stores every configured variant of the image at {@code s3ObjectKey} next to it and returns the sizes stored, in
+     * ascending order. Variants are best effort: content that cannot be decoded, or a size that fails, is logged and
+     * left out, and the original picture stays usable.
+     */
+    @TimedOperation("createImageVariants")
+    public SortedMap<Integer, String> createVariants(String s3ObjectKey, InputStream content) {
+        SortedMap<Integer, String> stored = new TreeMap<>();
+        if (sizes.length == 0) {
+            return stored;
+        }
+        try {
+            jobPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return stored;
+        }
+        try {
+            BufferedImage source = ImageResizer.decode(content, sizes[sizes.length - 1], maxSourcePixels);
+            if (source == null) {
+                logger.warn("No variants for {}: content is not a readable image", s3ObjectKey);
+                return stored;
+            }
+            String format = formatOf(s3ObjectKey);
+            Map<Integer, CompletableFuture<String>> tasks = new TreeMap<>();
+            for (int size : sizes) {
+                tasks.put(size, CompletableFuture.supplyAsync(() -> storeVariant(s3ObjectKey, source, size, format),
+                        variantExecutor));
+            }
+            tasks.forEach((size, task) -> {
+                try {
+                    stored.put(size, task.join());
+                } catch (CompletionException e) {
+                    logger.warn("Variant {} of {} failed: {}", size, s3ObjectKey, e.getCause().getMessage());
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            logger.warn("No variants for {}: {}", s3ObjectKey, e.getMessage());
+        } finally {
+            jobPermits.release();
+        }
+        return stored;
+    }
+
+    private String storeVariant(String s3ObjectKey, BufferedImage source, int size, String format) {
+        try {
+            byte[] encoded = ImageResizer.encode(ImageResizer.resize(source, size, "jpeg".equals(format)), format, jpegQuality);
+            String variantKey = variantKey(s3ObjectKey, size);
+            s3Service.putVariant(variantKey, "image/" + format, encoded);
+            return variantKey;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // <userId>/profilePic.png -> <userId>/profilePic_64.png
+    public static String variantKey(String s3ObjectKey, int size) {
+        int dot = s3ObjectKey.lastIndexOf('.');
+        return s3ObjectKey.substring(0, dot) + "_" + size + s3ObjectKey.substring(dot);
+    }
+
+    // Every key a variant of the picture can be stored at with the configured sizes, whether or not it was stored
+    public List<String> variantKeys(String s3ObjectKey) {
+        return Arrays.stream(sizes).mapToObj(size -> variantKey(s3ObjectKey, size)).toList();
+    }
+
+    public static List<String> variantKeys(String s3ObjectKey, String variantSizes) {
+        return parseSizes(variantSizes).stream().map(size -> variantKey(s3ObjectKey, size)).toList();
+    }
+
+    // Stored on the user row as "64,256"
+    public static String formatSizes(Collection<Integer> variantSizes) {
+        return variantSizes.isEmpty() ? null
+                : variantSizes.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    public static List<Integer> parseSizes(String variantSizes) {
+        if (variantSizes == null || variantSizes.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(variantSizes.split(",")).map(String::trim).map(Integer::valueOf).toList();
+    }
+
+    private static String formatOf(String s3ObjectKey) {
+        return s3ObjectKey.toLowerCase().endsWith(".png") ? "png" : "jpeg";
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        variantExecutor.shutdownNow();
+    }
+}
@@ -2,30 +2,60 @@ package com.cloud.webapp.service.serviceimpl;
 
 import com.cloud.webapp.entity.UserEntity;
 import com.cloud.webapp.repository.UserRepository;
+import com.cloud.webapp.security.RequestUserContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
+    public static final String ROLE_ADMIN = "ADMIN";
+
     private final UserRepository userRepository;
+    private final RequestUserContext requestUserContext;
+    private final Set<String> adminEmails;
 
-    public CustomUserDetailsService(UserRepository userRepository) {
+    public CustomUserDetailsService(UserRepository userRepository, RequestUserContext requestUserContext,
+                                    @Value("${security.admin-emails:}") List<String> adminEmails) {
         this.userRepository = userRepository;
+        this.requestUserContext = requestUserContext;
+        this.adminEmails = adminEmails.stream()
+                .map(String::trim)
+                .filter(email -> !email.isEmpty())
+                .map(email -> email.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
     }
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         UserEntity user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        // Handed to the service layer so the request does not load this user a second time
+        requestUserContext.set(user);
         return new org.springframework.security.core.userdetails.User(
                 user.getEmail(),
                 user.getPassword(),
-                new ArrayList<>()
+                authoritiesFor(user)
         );
     }
+
+    // Admin rights need both a configured address and a verified account
+    private List<GrantedAuthority> authoritiesFor(UserEntity user) {
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        if (user.isVerified() && adminEmails.contains(user.getEmail().toLowerCase(Locale.ROOT))) {
+            authorities.add(new SimpleGrantedAuthority("ROLE_" + ROLE_ADMIN));
+        }
+        return authorities;
+    }
 }
@@ -1,6 +1,7 @@
 package com.cloud.webapp.service.serviceimpl;
 
 import com.cloud.webapp.exceptions.Types.GeneralServiceException;
+import com.cloud.webapp.metrics.TimedOperation;
 import com.cloud.webapp.service.EmailService;
 import com.sendgrid.*;
 import com.sendgrid.helpers.mail.Mail;
@@ -28,9 +29,10 @@ public class EmailServiceImpl implements EmailService {
     private String token = getCurrentTimeUtil();
 
     @Override
+    @TimedOperation(value = "SendGrid.sendEmail", kind = TimedOperation.Kind.EXTERNAL)
     public void sendEmail(String receiverEmail) {
         try {
-            logger.info("sendEmail() Service hit started for receiverEmail: {}", receiverEmail);
+            logger.debug("sendEmail() Service hit started for receiverEmail: {}", receiverEmail);
             Email from = new Email(fromEmail);
             Email to = new Email(receiverEmail);
             String subject = "RE: [Application Status at Earth Y] Verify Email Address";
@@ -188,7 +190,7 @@ public class EmailServiceImpl implements EmailService {
             request.setEndpoint("mail/send");
             request.setBody(mail.build());
             Response response = sg.api(request);
-            logger.info("sendEmail() Service finished successfully with response: {}", response);
+            logger.info("sendEmail() Service finished with status: {}", response.getStatusCode());
         } catch (Exception ex) {
             logger.error("Error in sendEmail() Service: {}", ex.getMessage());
             throw new RuntimeException(ex);
@@ -0,0 +1,176 @@
+package com.cloud.webapp.service.serviceimpl;
+
+import com.cloud.webapp.exceptions.Types.GeneralServiceException;
+import com.cloud.webapp.exceptions.Types.ServiceOverloadedException;
+import com.cloud.webapp.service.PasswordHashingService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs BCrypt on a dedicated bounded pool so a registration burst cannot pin every Tomcat worker.
+ * A request is shed with a 503 before it is queued when the queue is full or the backlog ahead of it
+ * would already exceed the timeout. The timeout itself only bounds the caller's wait: a hash that has
+ * started cannot be interrupted and runs to completion, so the up-front check is what keeps doomed work
+ * out of the pool.
+ */
+@Service
+public class PasswordHashingServiceImpl implements PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final int poolSize;
+    private final long timeoutMillis;
+    private final int queueCapacity;
+    private final Timer hashTimer;
+    private final Counter rejectedCounter;
+    // Moving average of one hash, used to predict how long a new request would wait
+    private final AtomicLong averageHashNanos = new AtomicLong();
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    public PasswordHashingServiceImpl(
+            PasswordEncoder passwordEncoder,
+            MeterRegistry meterRegistry,
+            @Value("${security.password-hashing.threads:0}") int threads,
+            @Value("${security.password-hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${security.password-hashing.timeout-ms:5000}") long timeoutMillis) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.passwordEncoder = passwordEncoder;
+        this.poolSize = poolSize;
+        this.timeoutMillis = timeoutMillis;
+        this.queueCapacity = queueCapacity;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("password-hash-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.hashTimer = Timer.builder("password.hash.latency")
+                .description("Time spent computing a single password hash")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("password.hash.rejected")
+                .description("Hash requests shed because the queue was full or timed out")
+                .register(meterRegistry);
+        Gauge.builder("password.hash.queue.depth", executor, e -> e.getQueue().size())
+                .description("Hash requests waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Hash requests currently running")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(String rawPassword) {
+        long expectedMillis = expectedLatencyMillis();
+        if (expectedMillis >= timeoutMillis) {
+            rejectedCounter.increment();
+            logger.warn("Password hashing backlog would take ~{} ms, shedding request", expectedMillis);
+            throw new ServiceOverloadedException("Password hashing queue is full");
+        }
+
+        FutureTask<String> hash = new FutureTask<>(() -> hash(rawPassword));
+        try {
+            executor.execute(hash);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            logger.warn("Password hashing queue is full, shedding request");
+            throw new ServiceOverloadedException("Password hashing queue is full");
+        }
+
+        try {
+            return hash.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Frees the queue slot if the hash never started; a running hash cannot be stopped
+            executor.remove(hash);
+            hash.cancel(false);
+            rejectedCounter.increment();
+            logger.warn("Password hashing timed out after {} ms, shedding request", timeoutMillis);
+            throw new ServiceOverloadedException("Password hashing timed out");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.remove(hash);
+            hash.cancel(false);
+            throw new GeneralServiceException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            throw new GeneralServiceException("Password hashing failed", e.getCause());
+        }
+    }
+
+    // Bulk hashing never sheds: it only borrows the pool while at least half the queue is free,
+    // otherwise the calling thread hashes, leaving headroom for interactive sign-ups
+    @Override
+    public List<String> encodeAll(List<String> rawPasswords) {
+        List<Future<String>> hashes = new ArrayList<>(rawPasswords.size());
+        for (String rawPassword : rawPasswords) {
+            Future<String> hash = null;
+            if (executor.getQueue().remainingCapacity() > queueCapacity / 2) {
+                try {
+                    hash = executor.submit(() -> hash(rawPassword));
+                } catch (RejectedExecutionException e) {
+                    // fall through to the calling thread
+                }
+            }
+            if (hash == null) {
+                hash = CompletableFuture.completedFuture(hash(rawPassword));
+            }
+            hashes.add(hash);
+        }
+
+        List<String> encoded = new ArrayList<>(hashes.size());
+        try {
+            for (Future<String> hash : hashes) {
+                encoded.add(hash.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            hashes.forEach(hash -> hash.cancel(true));
+            throw new GeneralServiceException("Interrupted while hashing passwords", e);
+        } catch (ExecutionException e) {
+            throw new GeneralServiceException("Password hashing failed", e.getCause());
+        }
+        return encoded;
+    }
+
+    private String hash(String rawPassword) {
+        long start = System.nanoTime();
+        String encoded = hashTimer.record(() -> passwordEncoder.encode(rawPassword));
+        long elapsed = System.nanoTime() - start;
+        averageHashNanos.accumulateAndGet(elapsed,
+                (average, sample) -> average == 0 ? sample : average + (sample - average) / 8);
+        return encoded;
+    }
+
+    // Time until a new request's hash would finish: the queued hashes drain poolSize at a time, then its own runs
+    private long expectedLatencyMillis() {
+        int queued = executor.getQueue().size();
+        if (queued == 0 && executor.getActiveCount() < poolSize) {
+            return 0;
+        }
+        return TimeUnit.NANOSECONDS.toMillis((queued / poolSize + 1) * averageHashNanos.get());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
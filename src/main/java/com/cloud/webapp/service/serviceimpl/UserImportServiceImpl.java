@@ -0,0 +1,293 @@
+package com.cloud.webapp.service.serviceimpl;
+
+import com.cloud.webapp.DTO.UserImportResultDTO;
+import com.cloud.webapp.DTO.UserImportResultDTO.Status;
+import com.cloud.webapp.DTO.UserRequestDTO;
+import com.cloud.webapp.metrics.TimedOperation;
+import com.cloud.webapp.repository.UserRepository;
+import com.cloud.webapp.service.PasswordHashingService;
+import com.cloud.webapp.service.UserImportService;
+import com.cloud.webapp.service.aws.SNSService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import static com.cloud.webapp.utils.constants.USER_TABLE;
+import static com.cloud.webapp.utils.helpers.generateTimeOrderedUuid;
+import static com.cloud.webapp.utils.helpers.generateVerificationToken;
+import static com.cloud.webapp.utils.helpers.uuidToBytes;
+
+/**
+ * Streams NDJSON users in and per-row NDJSON results out. Rows are handled in fixed-size
+ * chunks: validated, de-duplicated, hashed in parallel and written with one JDBC batch,
+ * so memory use depends on the chunk size and not on the size of the upload.
+ */
+@Service
+public class UserImportServiceImpl implements UserImportService {
+
+    private static final String INSERT_USER_SQL = "INSERT INTO `" + USER_TABLE + "` (id, first_name, last_name, email,"
+            + " password, verified, verification_token, token_expiration_time, account_created, account_updated)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final UserRepository userRepository;
+    private final PasswordHashingService passwordHashingService;
+    private final SNSService snsService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int chunkSize;
+    private final long maxRows;
+    private final long requestTimeoutMillis;
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    public UserImportServiceImpl(UserRepository userRepository,
+                                 PasswordHashingService passwordHashingService,
+                                 SNSService snsService,
+                                 JdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 ObjectMapper objectMapper,
+                                 Validator validator,
+                                 @Value("${user-import.chunk-size:500}") int chunkSize,
+                                 @Value("${user-import.max-rows:100000}") long maxRows,
+                                 @Value("${user-import.request-timeout-ms:600000}") long requestTimeoutMillis) {
+        this.userRepository = userRepository;
+        this.passwordHashingService = passwordHashingService;
+        this.snsService = snsService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+        this.maxRows = maxRows;
+        this.requestTimeoutMillis = requestTimeoutMillis;
+    }
+
+    @Override
+    public long getRequestTimeoutMillis() {
+        return requestTimeoutMillis;
+    }
+
+    @Override
+    @TimedOperation("importUsers")
+    public void importUsers(InputStream ndjsonUsers, OutputStream ndjsonResults) throws IOException {
+        logger.info("importUsers() Service hit started");
+        BufferedReader reader = new BufferedReader(new InputStreamReader(ndjsonUsers, StandardCharsets.UTF_8));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(ndjsonResults, StandardCharsets.UTF_8));
+
+        List<PendingRow> chunk = new ArrayList<>(chunkSize);
+        long lineNumber = 0;
+        long created = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (lineNumber > maxRows) {
+                writeResult(writer, UserImportResultDTO.builder()
+                        .line(lineNumber)
+                        .status(Status.INVALID)
+                        .errors("Import is limited to " + maxRows + " rows per request")
+                        .build());
+                break;
+            }
+
+            UserImportResultDTO invalid = parse(lineNumber, line, chunk);
+            if (invalid != null) {
+                writeResult(writer, invalid);
+            }
+            if (chunk.size() >= chunkSize) {
+                created += flushChunk(chunk, writer);
+            }
+        }
+        created += flushChunk(chunk, writer);
+        writer.flush();
+        logger.info("importUsers() Service hit completed, {} users created from {} lines", created, lineNumber);
+    }
+
+    // Adds a valid row to the chunk, or returns the INVALID result for it
+    private UserImportResultDTO parse(long lineNumber, String line, List<PendingRow> chunk) {
+        UserRequestDTO user;
+        try {
+            user = objectMapper.readValue(line, UserRequestDTO.class);
+        } catch (JsonProcessingException e) {
+            return UserImportResultDTO.builder()
+                    .line(lineNumber)
+                    .status(Status.INVALID)
+                    .errors("Malformed JSON: " + e.getOriginalMessage())
+                    .build();
+        }
+
+        Set<ConstraintViolation<UserRequestDTO>> violations = validator.validate(user);
+        if (!violations.isEmpty()) {
+            Map<String, String> errors = new TreeMap<>();
+            violations.forEach(v -> errors.put(v.getPropertyPath().toString(), v.getMessage()));
+            return UserImportResultDTO.builder()
+                    .line(lineNumber)
+                    .email(user.getEmail())
+                    .status(Status.INVALID)
+                    .errors(errors)
+                    .build();
+        }
+
+        chunk.add(new PendingRow(lineNumber, user));
+        return null;
+    }
+
+    private long flushChunk(List<PendingRow> chunk, Writer writer) throws IOException {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+
+        // One query for the whole chunk instead of a findByEmail per row
+        Set<String> taken = new HashSet<>(userRepository.findExistingEmails(
+                chunk.stream().map(row -> row.user().getEmail()).toList()));
+        List<PendingRow> accepted = new ArrayList<>(chunk.size());
+        for (PendingRow row : chunk) {
+            if (!taken.add(row.user().getEmail())) {
+                writeResult(writer, row.result(Status.DUPLICATE));
+            } else {
+                accepted.add(row);
+            }
+        }
+
+        List<String> hashes = passwordHashingService.encodeAll(
+                accepted.stream().map(row -> row.user().getPassword()).toList());
+        // Plain JDBC binds these as-is, so both must already be UTC like the values Hibernate writes
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        LocalDateTime tokenExpiration = now.plusMinutes(4);
+        List<Object[]> rows = new ArrayList<>(accepted.size());
+        for (int i = 0; i < accepted.size(); i++) {
+            PendingRow row = accepted.get(i);
+            row.assign(generateTimeOrderedUuid(), generateVerificationToken());
+            rows.add(new Object[]{uuidToBytes(row.id), row.user().getFirst_name(), row.user().getLast_name(),
+                    row.user().getEmail(), hashes.get(i), false, row.verificationToken, tokenExpiration, now, now});
+        }
+
+        int inserted = insert(accepted, rows);
+        List<String> verificationMessages = new ArrayList<>(inserted);
+        for (PendingRow row : accepted) {
+            if (row.inserted) {
+                writeResult(writer, row.result(Status.CREATED));
+                verificationMessages.add("{\"receiverEmail\":\"" + row.user().getEmail()
+                        + "\", \"token\":\"" + row.verificationToken + "\"}");
+            } else {
+                writeResult(writer, row.result(row.failure));
+            }
+        }
+        snsService.publishBatchToTopic(verificationMessages);
+
+        writer.flush();
+        chunk.clear();
+        return inserted;
+    }
+
+    // Marks each row that made it into the table and returns how many did
+    private int insert(List<PendingRow> accepted, List<Object[]> rows) {
+        if (accepted.isEmpty()) {
+            return 0;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_USER_SQL, rows));
+            accepted.forEach(row -> row.inserted = true);
+            return accepted.size();
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent sign-up took one of the emails; retry row by row to find which
+            logger.warn("Batch insert rejected, retrying {} rows individually: {}", accepted.size(), e.getMessage());
+            int inserted = 0;
+            for (int i = 0; i < accepted.size(); i++) {
+                PendingRow row = accepted.get(i);
+                Object[] values = rows.get(i);
+                try {
+                    jdbcTemplate.update(connection -> bind(connection.prepareStatement(INSERT_USER_SQL), values));
+                    row.inserted = true;
+                    inserted++;
+                } catch (DataIntegrityViolationException duplicate) {
+                    row.failure = Status.DUPLICATE;
+                } catch (RuntimeException failed) {
+                    logger.error("Failed to import user on line {}: {}", row.lineNumber(), failed.getMessage());
+                    row.failure = Status.FAILED;
+                }
+            }
+            return inserted;
+        }
+    }
+
+    private static PreparedStatement bind(PreparedStatement statement, Object[] values) throws SQLException {
+        for (int i = 0; i < values.length; i++) {
+            statement.setObject(i + 1, values[i]);
+        }
+        return statement;
+    }
+
+    private void writeResult(Writer writer, UserImportResultDTO result) throws IOException {
+        writer.write(objectMapper.writeValueAsString(result));
+        writer.write('\n');
+    }
+
+    private static final class PendingRow {
+        private final long lineNumber;
+        private final UserRequestDTO user;
+        private UUID id;
+        private String verificationToken;
+        private boolean inserted;
+        private Status failure = Status.FAILED;
+
+        private PendingRow(long lineNumber, UserRequestDTO user) {
+            this.lineNumber = lineNumber;
+            this.user = user;
+        }
+
+        long lineNumber() {
+            return lineNumber;
+        }
+
+        UserRequestDTO user() {
+            return user;
+        }
+
+        void assign(UUID id, String verificationToken) {
+            this.id = id;
+            this.verificationToken = verificationToken;
+        }
+
+        UserImportResultDTO result(Status status) {
+            return UserImportResultDTO.builder()
+                    .line(lineNumber)
+                    .email(user.getEmail())
+                    .status(status)
+                    .id(status == Status.CREATED ? id.toString() : null)
+                    .build();
+        }
+    }
+}
@@ -1,32 +1,60 @@
 package com.cloud.webapp.service.serviceimpl;
 
+import com.cloud.webapp.DTO.PresignedUploadCompleteDTO;
+import com.cloud.webapp.DTO.PresignedUploadRequestDTO;
+import com.cloud.webapp.DTO.PresignedUploadResponseDTO;
 import com.cloud.webapp.DTO.UserImageResponseDTO;
 import com.cloud.webapp.DTO.UserRequestDTO;
 import com.cloud.webapp.DTO.UserResponseDTO;
 import com.cloud.webapp.entity.UserEntity;
 import com.cloud.webapp.exceptions.Types.FieldAlreadyExistsException;
 import com.cloud.webapp.exceptions.Types.GeneralServiceException;
+import com.cloud.webapp.exceptions.Types.PayloadTooLargeException;
 import com.cloud.webapp.exceptions.Types.ResourceNotFoundException;
+import com.cloud.webapp.exceptions.Types.ServiceOverloadedException;
 import com.cloud.webapp.exceptions.Types.UserNotVerifiedException;
 import com.cloud.webapp.mapper.UserMapper;
+import com.cloud.webapp.metrics.TimedOperation;
 import com.cloud.webapp.repository.UserRepository;
+import com.cloud.webapp.repository.projection.UserPictureView;
+import com.cloud.webapp.repository.projection.UserProfileView;
+import com.cloud.webapp.security.CredentialCache;
+import com.cloud.webapp.security.RequestUserContext;
+import com.cloud.webapp.service.PasswordHashingService;
 import com.cloud.webapp.service.UserService;
-import com.cloud.webapp.service.aws.CloudWatchService;
+import com.cloud.webapp.service.aws.S3PresignService;
 import com.cloud.webapp.service.aws.S3Service;
 import com.cloud.webapp.service.aws.SNSService;
+import com.cloud.webapp.service.image.ImageDiskCache;
+import com.cloud.webapp.service.image.ImageVariantService;
 import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
 import org.modelmapper.ModelMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeanUtils;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
 
+import java.io.InputStream;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
 
 import static com.cloud.webapp.utils.helpers.*;
 
@@ -34,38 +62,46 @@ import static com.cloud.webapp.utils.helpers.*;
 @AllArgsConstructor
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final UserMapper userMapper;
     private final ModelMapper modelMapper;
     private final S3Service s3service;
+    private final S3PresignService s3PresignService;
+    private final ImageVariantService imageVariantService;
+    private final ImageDiskCache imageDiskCache;
     private SNSService snsService;
-    private final CloudWatchService cloudWatchService;
+    private final CredentialCache credentialCache;
+    private final RequestUserContext requestUserContext;
+    private final TaskExecutor taskExecutor;
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private static final Set<String> PICTURE_EXTENSIONS = Set.of("jpg", "jpeg", "png");
 
 
-    public void checkIfUserVerified(String email) {
-        UserEntity user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new IllegalArgumentException("User not found with email: " + email));
+    // Reuses the row loaded during authentication when there is one, so each request queries the user once
+    public UserEntity loadVerifiedUser(String email) {
+        UserEntity user = requestUserContext.get(email)
+                .or(() -> userRepository.findByEmail(email))
+                .orElseThrow(() -> new ResourceNotFoundException("User", "email", email));
+        requestUserContext.set(user);
 
         if (!user.isVerified()) {
             throw new UserNotVerifiedException("User", "email", email);
         }
+        return user;
     }
 
     @Transactional
     @Override
+    @TimedOperation("registerUser")
     public UserResponseDTO createUser(UserRequestDTO userRequestDTO) {
         try {
-            long startTime = System.currentTimeMillis();
-            logger.info("createUser() Service hit started for userRequestDTO: {}", userRequestDTO);
-
-            long dbStartTime = System.currentTimeMillis();
+            logger.debug("createUser() Service hit started for email: {}", userRequestDTO.getEmail());
 
             if (userRepository.findByEmail(userRequestDTO.getEmail()).isPresent()) {
                 throw new FieldAlreadyExistsException("Email", "email", userRequestDTO.getEmail());
             }
 
-            String hashedPassword = passwordEncoder.encode(userRequestDTO.getPassword());
+            String hashedPassword = passwordHashingService.encode(userRequestDTO.getPassword());
             UserEntity user = UserEntity.builder()
                     .first_name(userRequestDTO.getFirst_name())
                     .last_name(userRequestDTO.getLast_name())
@@ -87,14 +123,7 @@ public class UserServiceImpl implements UserService {
             String message = "{\"receiverEmail\":\"" + user.getEmail() + "\", \"token\":\"" + verificationToken + "\"}";
             snsService.publishToTopic(message);
 
-            long dbEndTime = System.currentTimeMillis();
-            cloudWatchService.recordDatabaseQueryTime("createUserDatabaseOperation", dbEndTime - dbStartTime);
-
-            long endTime = System.currentTimeMillis();
-            cloudWatchService.incrementApiCall("registerUser");
-            cloudWatchService.recordApiResponseTime("registerUser", endTime - startTime);
-
-            logger.info("createUser() Service hit completed for userRequestDTO: {}", userRequestDTO);
+            logger.info("createUser() Service hit completed for email: {}", userRequestDTO.getEmail());
 
             return userMapper.toResponseDTOfromEntity(user);
         } catch (Exception e) {
@@ -103,32 +132,30 @@ public class UserServiceImpl implements UserService {
             if (e instanceof FieldAlreadyExistsException) {
                 throw (FieldAlreadyExistsException) e;
             }
+            if (e instanceof ServiceOverloadedException) {
+                throw (ServiceOverloadedException) e;
+            }
             throw new GeneralServiceException("UserServiceImpl Service Layer Exception");
         }
     }
 
 
     @Override
+    @TimedOperation("fetchUserDetails")
     public UserResponseDTO getUserByEmail(String email) {
         try {
-            checkIfUserVerified(email);
-            long startTime = System.currentTimeMillis();
-            logger.info("getUserByEmail() Service hit started for email: {}", email);
-
-            // Record start time for the database query
-            long dbStartTime = System.currentTimeMillis();
+            logger.debug("getUserByEmail() Service hit started for email: {}", email);
 
-            UserEntity user = userRepository.findByEmail(email)
-                    .orElseThrow(() -> new ResourceNotFoundException("Email", "email", email));
-
-            long dbEndTime = System.currentTimeMillis();
-            cloudWatchService.recordDatabaseQueryTime("getUserByEmailDatabaseOperation", dbEndTime - dbStartTime);
+            UserProfileView profile = requestUserContext.get(email)
+                    .map(UserProfileView::from)
+                    .or(() -> userRepository.findProfileByEmail(email))
+                    .orElseThrow(() -> new ResourceNotFoundException("User", "email", email));
+            if (!profile.verified()) {
+                throw new UserNotVerifiedException("User", "email", email);
+            }
 
             logger.info("getUserByEmail() Service hit completed for email: {}", email);
-            long endTime = System.currentTimeMillis();
-            cloudWatchService.incrementApiCall("fetchUserDetails");
-            cloudWatchService.recordApiResponseTime("fetchUserDetails", endTime - startTime);
-            return userMapper.toResponseDTOfromEntity(user);
+            return userMapper.toResponseDTOFromProfileView(profile);
         } catch (Exception e) {
             logger.error("Error in getUserByEmail() service: {}", e.getMessage());
             logger.error("UserServiceImpl Service Layer Exception");
@@ -141,81 +168,70 @@ public class UserServiceImpl implements UserService {
 
     @Override
     @Transactional
+    @TimedOperation("updateUserDetails")
     public UserResponseDTO updateUserDetails(UserRequestDTO userRequestDTO, String authenticatedEmail) {
         try {
-            long startTime = System.currentTimeMillis();
-            logger.info("updateUserDetails() Service hit started for request: {}", userRequestDTO);
+            logger.debug("updateUserDetails() Service hit started for email: {}", authenticatedEmail);
 
             if (userRequestDTO == null) {
                 throw new IllegalArgumentException("Request body cannot be empty.");
             }
-            checkIfUserVerified(userRequestDTO.getEmail());
-
-            // Record start time for the database query
-            long dbStartTime = System.currentTimeMillis();
-
-            UserEntity userEntity = userRepository.findByEmail(authenticatedEmail)
-                    .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + authenticatedEmail));
-
             if (userRequestDTO.getEmail() != null && !userRequestDTO.getEmail().equals(authenticatedEmail)) {
                 throw new IllegalArgumentException("Email cannot be changed.");
             }
 
+            UserEntity userEntity = loadVerifiedUser(authenticatedEmail);
+
             BeanUtils.copyProperties(userRequestDTO, userEntity, getNullPropertyNamesHelper(userRequestDTO));
             if (userRequestDTO.getPassword() != null && !userRequestDTO.getPassword().isEmpty()) {
-                userEntity.setPassword(passwordEncoder.encode(userRequestDTO.getPassword()));
+                userEntity.setPassword(passwordHashingService.encode(userRequestDTO.getPassword()));
+                credentialCache.invalidate(authenticatedEmail);
             }
 
-            UserEntity updatedUser = userRepository.save(userEntity);
-
-            long dbEndTime = System.currentTimeMillis();
-            cloudWatchService.recordDatabaseQueryTime("updateUserDetailsDatabaseOperation", dbEndTime - dbStartTime);
+            userEntity.setAccount_updated(updateTimestamp());
+            userRepository.updateDetails(userEntity.getId(), userEntity.getFirst_name(), userEntity.getLast_name(),
+                    userEntity.getPassword(), userEntity.getAccount_updated());
 
-            long endTime = System.currentTimeMillis();
-            cloudWatchService.incrementApiCall("updateUserDetails");
-            cloudWatchService.recordApiResponseTime("updateUserDetails", endTime - startTime);
-            logger.info("updateUserDetails() Service hit completed for request: {}", userRequestDTO);
-            return userMapper.toResponseDTOfromEntity(updatedUser);
+            logger.info("updateUserDetails() Service hit completed for email: {}", authenticatedEmail);
+            return userMapper.toResponseDTOfromEntity(userEntity);
         } catch (Exception e) {
             logger.error("Error in updateUserDetails() service: {}", e.getMessage());
             logger.error("UserServiceImpl Service Layer Exception");
+            if (e instanceof ServiceOverloadedException) {
+                throw (ServiceOverloadedException) e;
+            }
             throw new GeneralServiceException("UserServiceImpl Service Layer Exception");
         }
     }
 
     @Override
+    @TimedOperation("uploadProfilePic")
     public UserImageResponseDTO uploadProfilePicture(String email, MultipartFile profilePic) {
         try {
-            checkIfUserVerified(email);
-            long startTime = System.currentTimeMillis();
-            logger.info("uploadProfilePicture() Service hit started for request: {}", email);
-
-            // Record start time for the database query
-            long dbStartTime = System.currentTimeMillis();
+            logger.debug("uploadProfilePicture() Service hit started for request: {}", email);
 
-            UserEntity user = userRepository.findByEmail(email)
-                    .orElseThrow(() -> new ResourceNotFoundException("Email", "email", email));
-
-            long dbEndTime = System.currentTimeMillis();
-            cloudWatchService.recordDatabaseQueryTime("uploadProfilePictureDatabaseOperation", dbEndTime - dbStartTime);
+            UserEntity user = loadVerifiedUser(email);
+            if (user.getS3ObjectKey() != null) {
+                throw new FieldAlreadyExistsException("File", "file", profilePic.getName());
+            }
 
-            String s3ObjectKey = user.getId() + "/profilePic." + profilePic.getOriginalFilename().split("\\.")[1];
-            String imageUrl = s3service.uploadImage(s3ObjectKey, profilePic);
+            String s3ObjectKey = profilePictureKey(user.getId(), profilePic.getOriginalFilename());
+            reservePictureKey(user, s3ObjectKey);
+            String imageUrl = s3service.uploadImage(s3ObjectKey, profilePic, imageVariantService.variantKeys(s3ObjectKey));
             user.setS3ObjectKey(s3ObjectKey);
             user.setImageUrl(imageUrl);
+            user.setImageVariants(createVariants(s3ObjectKey, profilePic::getInputStream));
 
-            userRepository.save(user);
-            long endTime = System.currentTimeMillis();
-            cloudWatchService.incrementApiCall("uploadProfilePic");
-            cloudWatchService.recordApiResponseTime("uploadProfilePic", endTime - startTime);
+            saveOrRemoveUpload(user, s3ObjectKey);
             logger.info("uploadProfilePicture() Service hit completed for request: {}", email);
 
             return UserImageResponseDTO.builder()
-                    .url(user.getImageUrl())
-                    .id(user.getId())
+                    .url(s3PresignService.presignDownload(s3ObjectKey))
+                    .id(user.getId().toString())
                     .fileName(profilePic.getOriginalFilename())
                     .uploadDate(LocalDateTime.now())
-                    .userId(user.getId())
+                    .userId(user.getId().toString())
+                    .variants(variantUrls(s3ObjectKey, user.getImageVariants()))
                     .build();
         } catch (Exception e) {
             logger.error("Error in uploadProfilePicture() service: {}", e.getMessage());
@@ -223,41 +239,118 @@ public class UserServiceImpl implements UserService {
             if (e instanceof FieldAlreadyExistsException) {
                 throw (FieldAlreadyExistsException) e;
             }
+            if (e instanceof PayloadTooLargeException) {
+                throw (PayloadTooLargeException) e;
+            }
+            if (e instanceof IllegalArgumentException) {
+                throw (IllegalArgumentException) e;
+            }
             throw new GeneralServiceException("UserServiceImpl Service Layer Exception");
         }
     }
 
+    // The user row is loaded on the request thread; S3 runs on the async client and the save on the task executor,
+    // so no request thread waits on S3
     @Override
-    public UserImageResponseDTO getProfilePicture(String email) {
+    @TimedOperation("uploadProfilePic")
+    public CompletableFuture<UserImageResponseDTO> uploadProfilePictureAsync(String email, MultipartFile profilePic) {
+        if (!s3service.isAsyncEnabled()) {
+            return CompletableFuture.completedFuture(uploadProfilePicture(email, profilePic));
+        }
         try {
-            long startTime = System.currentTimeMillis();
-            logger.info("getProfilePicture() Service hit started for request: {}", email);
+            logger.debug("uploadProfilePictureAsync() Service hit started for request: {}", email);
 
-            // Record start time for the database query
-            long dbStartTime = System.currentTimeMillis();
+            UserEntity user = loadVerifiedUser(email);
+            if (user.getS3ObjectKey() != null) {
+                throw new FieldAlreadyExistsException("File", "file", profilePic.getName());
+            }
 
-            UserEntity user = userRepository.findByEmail(email)
-                    .orElseThrow(() -> new ResourceNotFoundException("User", "email", email));
+            String s3ObjectKey = profilePictureKey(user.getId(), profilePic.getOriginalFilename());
+            reservePictureKey(user, s3ObjectKey);
+            return s3service.uploadImageAsync(s3ObjectKey, profilePic, imageVariantService.variantKeys(s3ObjectKey))
+                    .thenApplyAsync(imageUrl -> {
+                        user.setS3ObjectKey(s3ObjectKey);
+                        user.setImageUrl(imageUrl);
+                        user.setImageVariants(createVariants(s3ObjectKey, profilePic::getInputStream));
+                        saveOrRemoveUpload(user, s3ObjectKey);
+                        logger.info("uploadProfilePictureAsync() Service hit completed for request: {}", email);
+
+                        return UserImageResponseDTO.builder()
+                                .url(s3PresignService.presignDownload(s3ObjectKey))
+                                .id(user.getId().toString())
+                                .fileName(profilePic.getOriginalFilename())
+                                .uploadDate(LocalDateTime.now())
+                                .userId(user.getId().toString())
+                                .variants(variantUrls(s3ObjectKey, user.getImageVariants()))
+                                .build();
+                    }, taskExecutor)
+                    .exceptionally(e -> {
+                        throw new CompletionException(toServiceException(unwrap(e), "uploadProfilePictureAsync"));
+                    });
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(toServiceException(e, "uploadProfilePictureAsync"));
+        }
+    }
+
+    // Strong ETags from account_updated, which every save bumps. Found without mapping the user, and without a
+    // query at all when authentication already loaded the row.
+    @Override
+    public Optional<String> getProfileETag(String email) {
+        return findVersion(email).map(version -> "\"user-" + version.toEpochMilli() + "\"");
+    }
+
+    // The picture response carries presigned URLs, so its ETag also rolls over with the presign window
+    @Override
+    public Optional<String> getProfilePictureETag(String email) {
+        return findVersion(email).map(version -> "\"pic-" + version.toEpochMilli() + "-"
+                + s3PresignService.currentDownloadWindow() + "\"");
+    }
+
+    // Computed from the row alone, so a matching If-None-Match is answered without touching the disk cache or S3.
+    // Empty when there is nothing to serve; getProfilePictureContent then reports why
+    @Override
+    public Optional<String> getProfilePictureContentETag(String email, Integer size) {
+        return requestUserContext.get(email)
+                .map(UserPictureView::from)
+                .or(() -> userRepository.findPictureByEmail(email))
+                .filter(UserPictureView::verified)
+                .flatMap(picture -> contentKey(picture, size)
+                        .map(s3ObjectKey -> ImageDiskCache.etag(s3ObjectKey, contentVersion(picture))));
+    }
 
-            checkIfUserVerified(user.getEmail());
-            long dbEndTime = System.currentTimeMillis();
-            cloudWatchService.recordDatabaseQueryTime("getProfilePictureDatabaseOperation", dbEndTime - dbStartTime);
+    private Optional<Instant> findVersion(String email) {
+        return requestUserContext.get(email)
+                .map(user -> user.isVerified() ? Optional.ofNullable(user.getAccount_updated()) : Optional.<Instant>empty())
+                .orElseGet(() -> userRepository.findVersionByEmail(email));
+    }
+
+    @Override
+    @TimedOperation("getProfilePic")
+    public UserImageResponseDTO getProfilePicture(String email) {
+        try {
+            logger.debug("getProfilePicture() Service hit started for request: {}", email);
+
+            UserPictureView picture = requestUserContext.get(email)
+                    .map(UserPictureView::from)
+                    .or(() -> userRepository.findPictureByEmail(email))
+                    .orElseThrow(() -> new ResourceNotFoundException("User", "email", email));
+            if (!picture.verified()) {
+                throw new UserNotVerifiedException("User", "email", email);
+            }
 
-            if (user.getImageUrl() == null) {
+            if (picture.imageUrl() == null) {
                 throw new ResourceNotFoundException("Profile Pic", "profilePic", email);
             }
 
-            long endTime = System.currentTimeMillis();
-            cloudWatchService.incrementApiCall("getProfilePic");
-            cloudWatchService.recordApiResponseTime("getProfilePic", endTime - startTime);
             logger.info("getProfilePicture() Service hit completed for request: {}", email);
 
             return UserImageResponseDTO.builder()
-                    .url(user.getImageUrl())
-                    .id(user.getId())
-                    .fileName(user.getS3ObjectKey())
-                    .uploadDate(convertTimeToLocalDateTime(user.getAccount_updated()))
-                    .userId(user.getId())
+                    .url(s3PresignService.presignDownload(picture.s3ObjectKey()))
+                    .id(picture.id().toString())
+                    .fileName(picture.s3ObjectKey())
+                    .uploadDate(toLocalDateTimeUtil(picture.account_updated()))
+                    .userId(picture.id().toString())
+                    .variants(variantUrls(picture.s3ObjectKey(), picture.imageVariants()))
                     .build();
         } catch (ResourceNotFoundException e) {
             logger.error("Error in getProfilePicture() service: {}", e.getMessage());
@@ -270,34 +363,70 @@ public class UserServiceImpl implements UserService {
         }
     }
 
+    // Bytes of the picture, or of one of its variants, through the local disk cache
     @Override
-    public void deleteProfilePicture(String email) {
+    @TimedOperation("getProfilePicContent")
+    public ImageDiskCache.CachedImage getProfilePictureContent(String email, Integer size) {
         try {
-            long startTime = System.currentTimeMillis();
-            logger.info("deleteProfilePicture() Service hit started for request: {}", email);
+            logger.debug("getProfilePictureContent() Service hit started for request: {}", email);
 
-            // Record start time for the database query
-            long dbStartTime = System.currentTimeMillis();
+            UserPictureView picture = requestUserContext.get(email)
+                    .map(UserPictureView::from)
+                    .or(() -> userRepository.findPictureByEmail(email))
+                    .orElseThrow(() -> new ResourceNotFoundException("User", "email", email));
+            if (!picture.verified()) {
+                throw new UserNotVerifiedException("User", "email", email);
+            }
+            if (picture.s3ObjectKey() == null) {
+                throw new ResourceNotFoundException("Profile Pic", "profilePic", email);
+            }
+            String s3ObjectKey = contentKey(picture, size)
+                    .orElseThrow(() -> new ResourceNotFoundException("Profile Pic", "size", size));
 
-            UserEntity user = userRepository.findByEmail(email)
-                    .orElseThrow(() -> new ResourceNotFoundException("Email", "email", email));
-            checkIfUserVerified(user.getEmail());
+            ImageDiskCache.CachedImage image = imageDiskCache.get(s3ObjectKey, contentVersion(picture));
+            logger.info("getProfilePictureContent() Service hit completed for request: {}", email);
+            return image;
+        } catch (Exception e) {
+            throw toServiceException(e, "getProfilePictureContent");
+        }
+    }
+
+    // The original, or the stored variant of the requested size
+    private static Optional<String> contentKey(UserPictureView picture, Integer size) {
+        if (picture.s3ObjectKey() == null) {
+            return Optional.empty();
+        }
+        if (size == null) {
+            return Optional.of(picture.s3ObjectKey());
+        }
+        return ImageVariantService.parseSizes(picture.imageVariants()).contains(size)
+                ? Optional.of(ImageVariantService.variantKey(picture.s3ObjectKey(), size))
+                : Optional.empty();
+    }
+
+    // account_updated changes with every upload or delete, so a replaced picture never hits the old entry
+    private static String contentVersion(UserPictureView picture) {
+        return String.valueOf(picture.account_updated().toEpochMilli());
+    }
+
+    @Override
+    @TimedOperation("deleteProfilePic")
+    public void deleteProfilePicture(String email) {
+        try {
+            logger.debug("deleteProfilePicture() Service hit started for request: {}", email);
+
+            UserEntity user = loadVerifiedUser(email);
             if (user.getS3ObjectKey() == null) {
                 throw new ResourceNotFoundException("Profile Pic", "profilePic", email);
             }
 
+            ImageVariantService.variantKeys(user.getS3ObjectKey(), user.getImageVariants()).forEach(s3service::deleteImage);
             s3service.deleteImage(user.getS3ObjectKey());
             user.setS3ObjectKey(null);
             user.setImageUrl(null);
+            user.setImageVariants(null);
+            savePicture(user);
 
-            userRepository.save(user);
-
-            long dbEndTime = System.currentTimeMillis();
-            cloudWatchService.recordDatabaseQueryTime("deleteProfilePictureDatabaseOperation", dbEndTime - dbStartTime);
-
-            long endTime = System.currentTimeMillis();
-            cloudWatchService.incrementApiCall("deleteProfilePic");
-            cloudWatchService.recordApiResponseTime("deleteProfilePic", endTime - startTime);
             logger.info("deleteProfilePicture() Service hit completed for request: {}", email);
         } catch (ResourceNotFoundException e) {
             logger.error("Error in deleteProfilePicture() service: {}", e.getMessage());
@@ -310,9 +439,225 @@ public class UserServiceImpl implements UserService {
         }
     }
 
+    @Override
+    @TimedOperation("deleteProfilePic")
+    public CompletableFuture<Void> deleteProfilePictureAsync(String email) {
+        if (!s3service.isAsyncEnabled()) {
+            deleteProfilePicture(email);
+            return CompletableFuture.completedFuture(null);
+        }
+        try {
+            logger.debug("deleteProfilePictureAsync() Service hit started for request: {}", email);
+
+            UserEntity user = loadVerifiedUser(email);
+            if (user.getS3ObjectKey() == null) {
+                throw new ResourceNotFoundException("Profile Pic", "profilePic", email);
+            }
+
+            List<String> keys = new ArrayList<>(ImageVariantService.variantKeys(user.getS3ObjectKey(), user.getImageVariants()));
+            keys.add(user.getS3ObjectKey());
+            return CompletableFuture.allOf(keys.stream().map(s3service::deleteImageAsync).toArray(CompletableFuture[]::new))
+                    .thenRunAsync(() -> {
+                        user.setS3ObjectKey(null);
+                        user.setImageUrl(null);
+                        user.setImageVariants(null);
+                        savePicture(user);
+                        logger.info("deleteProfilePictureAsync() Service hit completed for request: {}", email);
+                    }, taskExecutor)
+                    .exceptionally(e -> {
+                        throw new CompletionException(toServiceException(unwrap(e), "deleteProfilePictureAsync"));
+                    });
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(toServiceException(e, "deleteProfilePictureAsync"));
+        }
+    }
+
+    // The client PUTs the bytes straight to S3 with the returned URL, then calls completeProfilePictureUpload
+    @Override
+    @TimedOperation("presignProfilePic")
+    public PresignedUploadResponseDTO createProfilePictureUploadUrl(String email, PresignedUploadRequestDTO request) {
+        try {
+            logger.debug("createProfilePictureUploadUrl() Service hit started for request: {}", email);
+
+            UserEntity user = loadVerifiedUser(email);
+            if (user.getS3ObjectKey() != null) {
+                throw new FieldAlreadyExistsException("File", "file", request.getFileName());
+            }
+            if (!request.getContentType().toLowerCase(Locale.ROOT).startsWith("image/")) {
+                throw new IllegalArgumentException("Profile picture must be an image");
+            }
+
+            String s3ObjectKey = profilePictureKey(user.getId(), request.getFileName());
+            // The presigned PUT is conditional and S3 does the writing, so an object left by an attempt that was never
+            // completed has to be reclaimed here; the PUT would otherwise fail with 412 on every later attempt
+            reservePictureKey(user, s3ObjectKey);
+            if (!s3service.reclaimOrphan(s3ObjectKey, imageVariantService.variantKeys(s3ObjectKey))) {
+                throw new FieldAlreadyExistsException("File", "file", request.getFileName());
+            }
+            PresignedPutObjectRequest presigned = s3PresignService.presignUpload(s3ObjectKey,
+                    request.getContentType(), request.getContentLength());
+            logger.info("createProfilePictureUploadUrl() Service hit completed for request: {}", email);
+
+            // Host is implied by the URL; everything else was signed and has to be sent as-is
+            Map<String, List<String>> headers = presigned.signedHeaders().entrySet().stream()
+                    .filter(header -> !header.getKey().equalsIgnoreCase("host"))
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+            return PresignedUploadResponseDTO.builder()
+                    .uploadUrl(presigned.url().toString())
+                    .method(presigned.httpRequest().method().name())
+                    .headers(headers)
+                    .s3ObjectKey(s3ObjectKey)
+                    .expiresAt(presigned.expiration())
+                    .build();
+        } catch (Exception e) {
+            throw toServiceException(e, "createProfilePictureUploadUrl");
+        }
+    }
+
+    // Records a directly uploaded picture once S3 confirms the object is there and within limits
+    @Override
+    @TimedOperation("completeProfilePic")
+    public UserImageResponseDTO completeProfilePictureUpload(String email, PresignedUploadCompleteDTO request) {
+        try {
+            logger.debug("completeProfilePictureUpload() Service hit started for request: {}", email);
+
+            UserEntity user = loadVerifiedUser(email);
+            String s3ObjectKey = request.getS3ObjectKey();
+            if (!s3ObjectKey.equals(profilePictureKey(user.getId(), s3ObjectKey))) {
+                throw new IllegalArgumentException("Object key does not belong to this user");
+            }
+            // A retried completion for the recorded key is answered again rather than rejected
+            if (user.getS3ObjectKey() != null && !user.getS3ObjectKey().equals(s3ObjectKey)) {
+                throw new FieldAlreadyExistsException("File", "file", s3ObjectKey);
+            }
+
+            HeadObjectResponse object = s3service.findImage(s3ObjectKey)
+                    .orElseThrow(() -> new ResourceNotFoundException("Profile Pic", "s3ObjectKey", s3ObjectKey));
+            if (object.contentLength() > s3PresignService.getMaxUploadBytes()) {
+                s3service.deleteImage(s3ObjectKey);
+                throw new PayloadTooLargeException("Profile picture", "size", s3PresignService.getMaxUploadBytes());
+            }
+
+            if (user.getS3ObjectKey() == null) {
+                user.setS3ObjectKey(s3ObjectKey);
+                user.setImageUrl(s3service.getImageUrl(s3ObjectKey));
+                user.setImageVariants(createVariants(s3ObjectKey, () -> s3service.openImage(s3ObjectKey)));
+                saveOrRemoveUpload(user, s3ObjectKey);
+            }
+            logger.info("completeProfilePictureUpload() Service hit completed for request: {}", email);
+
+            return UserImageResponseDTO.builder()
+                    .url(s3PresignService.presignDownload(s3ObjectKey))
+                    .id(user.getId().toString())
+                    .fileName(s3ObjectKey)
+                    .uploadDate(toLocalDateTimeUtil(object.lastModified()))
+                    .userId(user.getId().toString())
+                    .variants(variantUrls(s3ObjectKey, user.getImageVariants()))
+                    .build();
+        } catch (Exception e) {
+            throw toServiceException(e, "completeProfilePictureUpload");
+        }
+    }
+
+    // <userId>/profilePic.<ext>, so each user has exactly one key per extension
+    private static String profilePictureKey(UUID userId, String fileName) {
+        String extension = fileName.substring(fileName.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+        if (!PICTURE_EXTENSIONS.contains(extension)) {
+            throw new IllegalArgumentException("Profile picture must be one of " + PICTURE_EXTENSIONS);
+        }
+        return userId + "/profilePic." + extension;
+    }
+
+    // The key is recorded before any bytes are written, so an upload whose save never happens is found by the user's
+    // next upload whatever its extension, without listing the user's prefix. A pending key under another extension
+    // is reclaimed first; one still within the orphan grace belongs to an upload in progress.
+    private void reservePictureKey(UserEntity user, String s3ObjectKey) {
+        String pendingKey = user.getPendingS3ObjectKey();
+        if (pendingKey != null && !pendingKey.equals(s3ObjectKey)
+                && !s3service.reclaimOrphan(pendingKey, imageVariantService.variantKeys(pendingKey))) {
+            throw new FieldAlreadyExistsException("File", "file", pendingKey);
+        }
+        // The row in hand may be stale: another upload can have reserved or recorded a picture since it was read
+        if (userRepository.reservePictureKey(user.getId(), s3ObjectKey, pendingKey) == 0) {
+            throw new FieldAlreadyExistsException("File", "file", s3ObjectKey);
+        }
+        user.setPendingS3ObjectKey(s3ObjectKey);
+    }
+
+    // The object is only useful once the row points at it, so a failed save takes the upload back out of S3.
+    // If the process dies in between, the pending key left on the row leads the next upload to the orphan.
+    private void saveOrRemoveUpload(UserEntity user, String s3ObjectKey) {
+        try {
+            user.setAccount_updated(updateTimestamp());
+            if (userRepository.recordPicture(user.getId(), s3ObjectKey, user.getImageUrl(), user.getImageVariants(),
+                    user.getAccount_updated()) == 0) {
+                // Held longer than the orphan grace and reclaimed by a later upload
+                throw new FieldAlreadyExistsException("File", "file", s3ObjectKey);
+            }
+            user.setPendingS3ObjectKey(null);
+        } catch (RuntimeException e) {
+            List<String> keys = new ArrayList<>(ImageVariantService.variantKeys(s3ObjectKey, user.getImageVariants()));
+            keys.add(s3ObjectKey);
+            for (String key : keys) {
+                try {
+                    s3service.deleteImage(key);
+                } catch (RuntimeException cleanupFailure) {
+                    logger.error("Failed to remove {} after the user save failed: {}", key, cleanupFailure.getMessage());
+                }
+            }
+            throw e;
+        }
+    }
+
+    private void savePicture(UserEntity user) {
+        user.setAccount_updated(updateTimestamp());
+        userRepository.updatePicture(user.getId(), user.getS3ObjectKey(), user.getImageUrl(), user.getImageVariants(),
+                user.getAccount_updated());
+    }
+
+    // The column keeps milliseconds; the row in hand has to carry the same value for the ETags derived from it
+    private static Instant updateTimestamp() {
+        return Instant.now().truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    // Variants never fail the upload; without them clients fall back to the original
+    private String createVariants(String s3ObjectKey, Callable<InputStream> source) {
+        try (InputStream content = source.call()) {
+            return ImageVariantService.formatSizes(imageVariantService.createVariants(s3ObjectKey, content).keySet());
+        } catch (Exception e) {
+            logger.warn("Skipping variants for {}: {}", s3ObjectKey, e.getMessage());
+            return null;
+        }
+    }
+
+    private Map<Integer, String> variantUrls(String s3ObjectKey, String variantSizes) {
+        Map<Integer, String> urls = new TreeMap<>();
+        for (int size : ImageVariantService.parseSizes(variantSizes)) {
+            urls.put(size, s3PresignService.presignDownload(ImageVariantService.variantKey(s3ObjectKey, size)));
+        }
+        return urls;
+    }
+
+    // Client errors pass through, anything else becomes a service error
+    private RuntimeException toServiceException(Throwable e, String method) {
+        logger.error("Error in {}() service: {}", method, e.getMessage());
+        logger.error("UserServiceImpl Service Layer Exception");
+        if (e instanceof FieldAlreadyExistsException || e instanceof PayloadTooLargeException
+                || e instanceof ResourceNotFoundException || e instanceof UserNotVerifiedException
+                || e instanceof IllegalArgumentException) {
+            return (RuntimeException) e;
+        }
+        return new GeneralServiceException("UserServiceImpl Service Layer Exception");
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
+    @TimedOperation("verifyUser")
     public boolean verifyUserByToken(String token) {
         try {
-            logger.info("verifyUserByToken() Service hit started for token: {}", token);
+            logger.debug("verifyUserByToken() Service hit started");
             Optional<UserEntity> userOpt = userRepository.findByVerificationToken(token);
             if (userOpt.isPresent()) {
                 UserEntity user = userOpt.get();
@@ -2,4 +2,5 @@ package com.cloud.webapp.utils;
 
 public class constants {
     public static final String USER_TABLE="USER";
+    public static final String TOKEN_ENDPOINT="/v1/user/token";
 }
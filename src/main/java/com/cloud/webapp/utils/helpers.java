@@ -8,10 +8,21 @@ import org.springframework.security.core.userdetails.UserDetails;
 import java.lang.reflect.Field;
 
 import java.time.LocalDateTime;
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class helpers {
+    // API format for timestamps, in the server's zone as it always has been
+    private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final SecureRandom UUID_RANDOM = new SecureRandom();
+    // Last issued (epoch millis << 12 | sequence), keeps UUIDv7s strictly increasing within a millisecond
+    private static final AtomicLong UUID_CLOCK = new AtomicLong();
+
     public static String getAuthenticatedUserEmailHelper() {
         Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         if (principal instanceof UserDetails) {
@@ -53,11 +64,26 @@ public class helpers {
     }
 
     public static String getCurrentTimeUtil(){
-        return LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
+        return LocalDateTime.now().format(TIMESTAMP_FORMATTER);
+    }
+
+    public static String formatTimestampUtil(Instant instant){
+        return instant == null ? null : TIMESTAMP_FORMATTER.format(instant.atZone(ZoneId.systemDefault()));
     }
-    public static LocalDateTime convertTimeToLocalDateTime(String time){
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-        return LocalDateTime.parse(time, formatter);
+
+    // If-None-Match uses weak comparison, so W/ prefixes are ignored
+    public static boolean etagMatchesUtil(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .map(tag -> tag.startsWith("W/") ? tag.substring(2) : tag)
+                .anyMatch(tag -> tag.equals("*") || tag.equals(etag));
+    }
+
+    public static LocalDateTime toLocalDateTimeUtil(Instant instant){
+        return instant == null ? null : LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
     }
 
     private static Set<String> initializeAllowedFields() {
@@ -91,6 +117,27 @@ public class helpers {
     public static String generateVerificationToken() {
         return UUID.randomUUID().toString();
     }
+
+    // RFC 9562 version 7 UUID: 48-bit unix millis, 12-bit sequence, 62 random bits
+    public static UUID generateTimeOrderedUuid() {
+        long now = System.currentTimeMillis() << 12;
+        long clock = UUID_CLOCK.updateAndGet(previous -> Math.max(now, previous + 1));
+        long mostSigBits = ((clock >>> 12) << 16) | 0x7000L | (clock & 0xFFFL);
+        long leastSigBits = (UUID_RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    public static byte[] uuidToBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    public static UUID bytesToUuid(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
 }
 
 
@@ -0,0 +1,18 @@
+-- Schema as previously generated by ddl-auto=update. Existing databases are
+-- baselined at version 1 (spring.flyway.baseline-on-migrate), so this only runs
+-- on fresh databases.
+CREATE TABLE IF NOT EXISTS `USER` (
+    `id`                    CHAR(36)     NOT NULL,
+    `first_name`            VARCHAR(255) NULL,
+    `last_name`             VARCHAR(255) NULL,
+    `email`                 VARCHAR(255) NULL,
+    `password`              VARCHAR(255) NULL,
+    `s3object_key`          VARCHAR(255) NULL,
+    `image_url`             VARCHAR(255) NULL,
+    `verified`              BIT(1)       NOT NULL,
+    `verification_token`    VARCHAR(255) NULL,
+    `token_expiration_time` DATETIME(6)  NULL,
+    `account_created`       VARCHAR(255) NOT NULL,
+    `account_updated`       VARCHAR(255) NOT NULL,
+    PRIMARY KEY (`id`)
+) ENGINE = InnoDB;
@@ -0,0 +1,6 @@
+-- findByEmail and findByVerificationToken run on every authenticated request and
+-- every verification link; without these they are full table scans.
+-- The unique key fails if duplicate emails already exist; resolve those first.
+ALTER TABLE `USER`
+    ADD CONSTRAINT `uk_user_email` UNIQUE (`email`),
+    ADD INDEX `idx_user_verification_token` (`verification_token`);
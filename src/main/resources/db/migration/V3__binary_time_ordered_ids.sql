@@ -0,0 +1,12 @@
+-- Store ids as BINARY(16) instead of CHAR(36). Existing ids keep their value
+-- (BIN_TO_UUID(id) returns the old string, so S3 keys stay valid); new ids are
+-- time-ordered UUIDv7 so inserts append to the clustered index.
+ALTER TABLE `USER` ADD COLUMN `id_bin` BINARY(16) NULL FIRST;
+
+UPDATE `USER` SET `id_bin` = UUID_TO_BIN(`id`);
+
+ALTER TABLE `USER`
+    DROP PRIMARY KEY,
+    DROP COLUMN `id`,
+    CHANGE COLUMN `id_bin` `id` BINARY(16) NOT NULL FIRST,
+    ADD PRIMARY KEY (`id`);
@@ -0,0 +1,20 @@
+-- account_created / account_updated move from 'yyyy-MM-dd HH:mm' strings to
+-- DATETIME(3) holding UTC (hibernate.jdbc.time_zone=UTC). The old strings were
+-- written in the server's zone, which is UTC on our hosts.
+ALTER TABLE `USER`
+    ADD COLUMN `account_created_at` DATETIME(3) NULL,
+    ADD COLUMN `account_updated_at` DATETIME(3) NULL;
+
+UPDATE `USER`
+SET `account_created_at` = STR_TO_DATE(`account_created`, '%Y-%m-%d %H:%i'),
+    `account_updated_at` = STR_TO_DATE(`account_updated`, '%Y-%m-%d %H:%i');
+
+ALTER TABLE `USER`
+    DROP COLUMN `account_created`,
+    DROP COLUMN `account_updated`;
+
+ALTER TABLE `USER`
+    CHANGE COLUMN `account_created_at` `account_created` DATETIME(3) NOT NULL,
+    CHANGE COLUMN `account_updated_at` `account_updated` DATETIME(3) NOT NULL,
+    ADD INDEX `idx_user_account_created` (`account_created`),
+    ADD INDEX `idx_user_account_updated` (`account_updated`);
@@ -0,0 +1,3 @@
+-- Comma-separated sizes of the resized profile picture copies, e.g. '64,256'
+ALTER TABLE `USER`
+    ADD COLUMN `image_variants` VARCHAR(64) NULL AFTER `image_url`;
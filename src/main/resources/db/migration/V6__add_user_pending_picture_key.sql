@@ -0,0 +1,3 @@
+-- Key of a profile picture upload that has started but is not recorded yet, so an abandoned one can be reclaimed
+ALTER TABLE `USER`
+    ADD COLUMN `pending_s3object_key` VARCHAR(255) NULL AFTER `image_variants`;
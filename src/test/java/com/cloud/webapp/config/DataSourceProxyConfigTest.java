@@ -0,0 +1,97 @@
+package com.cloud.webapp.config;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.cloud.webapp.datasource.StatementMetricsListener;
+import com.cloud.webapp.metrics.MetricsAggregator;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.env.MockEnvironment;
+import software.amazon.awssdk.services.cloudwatch.model.StandardUnit;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class DataSourceProxyConfigTest {
+
+    private final DataSource database = new DriverManagerDataSource("jdbc:h2:mem:proxied;DB_CLOSE_DELAY=-1", "sa", "");
+    private final MetricsAggregator metricsAggregator = mock(MetricsAggregator.class);
+    private final MockEnvironment environment = new MockEnvironment();
+    private final Logger logger = (Logger) LoggerFactory.getLogger(StatementMetricsListener.class);
+    private final ListAppender<ILoggingEvent> logged = new ListAppender<>();
+
+    @BeforeEach
+    void setUp() {
+        logged.start();
+        logger.addAppender(logged);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(logged);
+    }
+
+    @Test
+    void applicationDataSource_IsWrappedOnce() {
+        Object proxied = postProcessor().postProcessAfterInitialization(database, "dataSource");
+
+        assertInstanceOf(ProxyDataSource.class, proxied);
+        assertSame(proxied, postProcessor().postProcessAfterInitialization(proxied, "dataSource"));
+    }
+
+    @Test
+    void otherDataSources_AreLeftAsTheyAre() {
+        assertSame(database, postProcessor().postProcessAfterInitialization(database, "replicaDataSource"));
+    }
+
+    @Test
+    void statementsThroughTheProxy_AreTimedAndCheckedAgainstTheConfiguredThreshold() throws SQLException {
+        environment.setProperty("metrics.jdbc.slow-query-threshold-ms", "0");
+        DataSource proxied = (DataSource) postProcessor().postProcessAfterInitialization(database, "dataSource");
+
+        try (Connection connection = proxied.getConnection(); Statement statement = connection.createStatement()) {
+            statement.executeQuery("select 1");
+        }
+
+        verify(metricsAggregator).record(eq("JdbcStatementTime"), eq(StandardUnit.MILLISECONDS), anyList(), anyDouble());
+        assertEquals(1, logged.list.size());
+        assertTrue(logged.list.get(0).getFormattedMessage().endsWith("): select 1"));
+    }
+
+    @Test
+    void defaultThreshold_DoesNotLogFastStatements() throws SQLException {
+        DataSource proxied = (DataSource) postProcessor().postProcessAfterInitialization(database, "dataSource");
+
+        try (Connection connection = proxied.getConnection(); Statement statement = connection.createStatement()) {
+            statement.executeQuery("select 1");
+        }
+
+        assertTrue(logged.list.isEmpty());
+    }
+
+    private BeanPostProcessor postProcessor() {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("metricsAggregator", metricsAggregator));
+        return DataSourceProxyConfig.dataSourceProxyPostProcessor(beanFactory.getBeanProvider(MetricsAggregator.class),
+                environment);
+    }
+}
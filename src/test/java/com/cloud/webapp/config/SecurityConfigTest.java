@@ -0,0 +1,138 @@
+package com.cloud.webapp.config;
+
+import com.cloud.webapp.security.CredentialCache;
+import com.cloud.webapp.security.TokenService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringJUnitWebConfig(classes = {SecurityConfig.class, SecurityConfigTest.StubImportController.class,
+        SecurityConfigTest.StubActuatorController.class})
+@EnableWebMvc
+class SecurityConfigTest {
+
+    @MockBean
+    private UserDetailsService userDetailsService;
+
+    @MockBean
+    private TokenService tokenService;
+
+    @MockBean
+    private CredentialCache credentialCache;
+
+    @Autowired
+    private WebApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+    }
+
+    @Test
+    void anonymousImport_IsUnauthorized() throws Exception {
+        mockMvc.perform(post("/v1/user/import")).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @WithMockUser(username = "user@example.com")
+    void normalUserImport_IsForbidden() throws Exception {
+        mockMvc.perform(post("/v1/user/import")).andExpect(status().isForbidden());
+    }
+
+    @Test
+    void bearerTokenImport_IsForbidden() throws Exception {
+        when(tokenService.validate(anyString())).thenReturn("user@example.com");
+
+        mockMvc.perform(post("/v1/user/import").header("Authorization", "Bearer token"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(username = "admin@example.com", roles = "ADMIN")
+    void adminImport_IsAllowed() throws Exception {
+        mockMvc.perform(post("/v1/user/import")).andExpect(status().isOk());
+    }
+
+    @Test
+    void anonymousJfrStart_IsUnauthorized() throws Exception {
+        mockMvc.perform(post("/actuator/jfr/start")).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @WithMockUser(username = "user@example.com")
+    void normalUserJfrStart_IsForbidden() throws Exception {
+        mockMvc.perform(post("/actuator/jfr/start")).andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(username = "user@example.com")
+    void normalUserJfrSummary_IsForbidden() throws Exception {
+        mockMvc.perform(get("/actuator/jfr")).andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(username = "user@example.com")
+    void normalUserActuatorWrite_IsForbidden() throws Exception {
+        mockMvc.perform(post("/actuator/loggers/com.cloud.webapp")).andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(username = "admin@example.com", roles = "ADMIN")
+    void adminJfrStart_IsAllowed() throws Exception {
+        mockMvc.perform(post("/actuator/jfr/start")).andExpect(status().isOk());
+    }
+
+    @Test
+    void anonymousActuatorRead_IsAllowed() throws Exception {
+        mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+    }
+
+    @RestController
+    static class StubImportController {
+
+        @PostMapping("/v1/user/import")
+        void importUsers() {
+        }
+    }
+
+    @RestController
+    static class StubActuatorController {
+
+        @GetMapping("/actuator/jfr")
+        void jfrSummary() {
+        }
+
+        @PostMapping("/actuator/jfr/{action}")
+        void jfrControl(@PathVariable String action) {
+        }
+
+        @PostMapping("/actuator/loggers/{name}")
+        void setLogLevel(@PathVariable String name) {
+        }
+
+        @GetMapping("/actuator/health")
+        void health() {
+        }
+    }
+}
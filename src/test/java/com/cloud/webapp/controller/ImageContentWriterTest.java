@@ -0,0 +1,86 @@
+package com.cloud.webapp.controller;
+
+import com.cloud.webapp.service.image.ImageDiskCache.CachedImage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ImageContentWriterTest {
+
+    private static final byte[] PICTURE = "0123456789".getBytes();
+    private static final String ETAG = "\"abc\"";
+
+    @TempDir
+    Path directory;
+
+    private CachedImage image;
+    private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/user/self/pic/content");
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path file = Files.write(directory.resolve("picture.img"), PICTURE);
+        image = new CachedImage(file, PICTURE.length, ETAG, "image/png");
+    }
+
+    @Test
+    void fullBody_WithValidators() throws IOException {
+        ImageContentWriter.write(image, request, response);
+
+        assertEquals(200, response.getStatus());
+        assertArrayEquals(PICTURE, response.getContentAsByteArray());
+        assertEquals(ETAG, response.getHeader("ETag"));
+        assertEquals("private, no-cache", response.getHeader("Cache-Control"));
+    }
+
+    @Test
+    void matchingIfNoneMatch_IsNotModified() throws IOException {
+        request.addHeader("If-None-Match", "\"other\", W/\"abc\"");
+
+        ImageContentWriter.write(image, request, response);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void singleRange_IsPartialContent() throws IOException {
+        request.addHeader("Range", "bytes=2-5");
+
+        ImageContentWriter.write(image, request, response);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 2-5/10", response.getHeader("Content-Range"));
+        assertArrayEquals("2345".getBytes(), response.getContentAsByteArray());
+    }
+
+    @Test
+    void rangePastTheEnd_IsNotSatisfiable() throws IOException {
+        request.addHeader("Range", "bytes=20-");
+
+        ImageContentWriter.write(image, request, response);
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */10", response.getHeader("Content-Range"));
+    }
+
+    @Test
+    void staleIfRange_SendsTheWholePicture() throws IOException {
+        request.addHeader("Range", "bytes=2-5");
+        request.addHeader("If-Range", "\"old\"");
+
+        ImageContentWriter.write(image, request, response);
+
+        assertEquals(200, response.getStatus());
+        assertArrayEquals(PICTURE, response.getContentAsByteArray());
+    }
+}
@@ -0,0 +1,110 @@
+package com.cloud.webapp.controller;
+
+import com.cloud.webapp.DTO.UserImageResponseDTO;
+import com.cloud.webapp.DTO.UserResponseDTO;
+import com.cloud.webapp.mapper.UserMapper;
+import com.cloud.webapp.security.TokenService;
+import com.cloud.webapp.service.UserImportService;
+import com.cloud.webapp.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+public class UserControllerETagTest {
+
+    private static final String EMAIL = "jane.doe@example.com";
+    private static final String ETAG = "\"user-1700000000000\"";
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private UserMapper userMapper;
+
+    @Mock
+    private TokenService tokenService;
+
+    @Mock
+    private UserImportService userImportService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(
+                new UserController(userService, userMapper, tokenService, userImportService)).build();
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated(EMAIL, null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void profile_WithAMatchingETag_IsNotModifiedWithoutLoadingTheUser() throws Exception {
+        when(userService.getProfileETag(EMAIL)).thenReturn(Optional.of(ETAG));
+
+        mockMvc.perform(get("/v1/user/self").header(HttpHeaders.IF_NONE_MATCH, "W/" + ETAG))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(content().string(""));
+
+        verify(userService, never()).getUserByEmail(anyString());
+    }
+
+    @Test
+    void profile_WithAStaleETag_IsServedWithTheCurrentOne() throws Exception {
+        when(userService.getProfileETag(EMAIL)).thenReturn(Optional.of(ETAG));
+        when(userService.getUserByEmail(EMAIL)).thenReturn(new UserResponseDTO());
+
+        mockMvc.perform(get("/v1/user/self").header(HttpHeaders.IF_NONE_MATCH, "\"user-1699999999999\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG));
+
+        verify(userService).getUserByEmail(EMAIL);
+    }
+
+    @Test
+    void picture_WithAMatchingETag_IsNotModifiedWithoutPresigning() throws Exception {
+        when(userService.getProfilePictureETag(EMAIL)).thenReturn(Optional.of(ETAG));
+
+        mockMvc.perform(get("/v1/user/self/pic").header(HttpHeaders.IF_NONE_MATCH, "\"other\", " + ETAG))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG));
+
+        verify(userService, never()).getProfilePicture(anyString());
+    }
+
+    @Test
+    void picture_WithoutIfNoneMatch_IsServed() throws Exception {
+        when(userService.getProfilePictureETag(EMAIL)).thenReturn(Optional.of(ETAG));
+        when(userService.getProfilePicture(EMAIL)).thenReturn(new UserImageResponseDTO());
+
+        mockMvc.perform(get("/v1/user/self/pic"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG));
+    }
+}
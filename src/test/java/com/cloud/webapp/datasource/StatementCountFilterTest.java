@@ -0,0 +1,94 @@
+package com.cloud.webapp.datasource;
+
+import com.cloud.webapp.metrics.MetricsAggregator;
+import jakarta.servlet.DispatcherType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.HandlerMapping;
+import software.amazon.awssdk.services.cloudwatch.model.StandardUnit;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class StatementCountFilterTest {
+
+    private final MetricsAggregator metricsAggregator = mock(MetricsAggregator.class);
+    private final StatementCountFilter filter = new StatementCountFilter(metricsAggregator);
+    private final StatementCountTaskDecorator decorator = new StatementCountTaskDecorator();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void statementsOnTheTaskExecutor_CountTowardsTheRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/v1/user/self/pic");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/v1/user/self/pic");
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            StatementCountFilter.increment();
+            runOnExecutor(decorator.decorate(() -> {
+                StatementCountFilter.increment();
+                StatementCountFilter.increment();
+            }));
+        });
+
+        verify(metricsAggregator).record("StatementsPerRequest", StandardUnit.COUNT, "Endpoint",
+                "POST /v1/user/self/pic", 3);
+    }
+
+    @Test
+    void asyncRequest_IsRecordedOnItsAsyncDispatch() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/v1/user/import");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<Runnable> handedOff = new AtomicReference<>();
+
+        filter.doFilter(request, response, (req, res) -> {
+            StatementCountFilter.increment();
+            StandardServletAsyncWebRequest asyncWebRequest = new StandardServletAsyncWebRequest(request, response);
+            WebAsyncUtils.getAsyncManager(request).setAsyncWebRequest(asyncWebRequest);
+            asyncWebRequest.startAsync();
+            handedOff.set(decorator.decorate(StatementCountFilter::increment));
+        });
+        verify(metricsAggregator, never()).record(anyString(), any(), anyString(), anyString(), anyDouble());
+
+        runOnExecutor(handedOff.get());
+        request.setAsyncStarted(false);
+        request.setDispatcherType(DispatcherType.ASYNC);
+        filter.doFilter(request, response, (req, res) -> { });
+
+        verify(metricsAggregator).record("StatementsPerRequest", StandardUnit.COUNT, "Endpoint", "POST unmapped", 2);
+    }
+
+    @Test
+    void taskSubmittedOutsideARequest_IsLeftAsItIs() {
+        Runnable task = StatementCountFilter::increment;
+
+        assertSame(task, decorator.decorate(task));
+    }
+
+    private void runOnExecutor(Runnable task) {
+        try {
+            executor.submit(task).get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.cloud.webapp.datasource;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.cloud.webapp.metrics.MetricsAggregator;
+import com.cloud.webapp.metrics.OperationTimer;
+import com.cloud.webapp.metrics.TimedOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import software.amazon.awssdk.services.cloudwatch.model.Dimension;
+import software.amazon.awssdk.services.cloudwatch.model.StandardUnit;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class StatementMetricsListenerTest {
+
+    private static final String SELECT = "select name from person where id = ?";
+
+    private final DataSource database = new DriverManagerDataSource("jdbc:h2:mem:statements;DB_CLOSE_DELAY=-1", "sa", "");
+    private final MetricsAggregator metricsAggregator = mock(MetricsAggregator.class);
+    private final Logger logger = (Logger) LoggerFactory.getLogger(StatementMetricsListener.class);
+    private final ListAppender<ILoggingEvent> logged = new ListAppender<>();
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        try (Connection connection = database.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("create table if not exists person (id int primary key, name varchar(50))");
+            statement.execute("merge into person key (id) values (1, 'Jane')");
+        }
+        logged.start();
+        logger.addAppender(logged);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(logged);
+    }
+
+    @Test
+    void statement_IsAttributedToTheEnclosingOperation() throws Throwable {
+        DataSource proxy = proxy(new StatementMetricsListener(metricsAggregator, database, 10_000, false));
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.proceed()).thenAnswer(invocation -> select(proxy));
+
+        new OperationTimer(List.of()).time("UserRepository.findByEmail", TimedOperation.Kind.REPOSITORY, joinPoint);
+        select(proxy);
+
+        verify(metricsAggregator).record(eq("JdbcStatementTime"), eq(StandardUnit.MILLISECONDS),
+                eq(queryName("UserRepository.findByEmail")), anyDouble());
+        verify(metricsAggregator).record(eq("JdbcStatementTime"), eq(StandardUnit.MILLISECONDS),
+                eq(queryName("unattributed")), anyDouble());
+        verify(metricsAggregator, never()).record(eq("JdbcStatementErrors"), eq(StandardUnit.COUNT), anyList(), anyDouble());
+    }
+
+    @Test
+    void failedStatement_IsCountedAsAnError() {
+        DataSource proxy = proxy(new StatementMetricsListener(metricsAggregator, database, 10_000, false));
+
+        assertThrows(SQLException.class, () -> {
+            try (Connection connection = proxy.getConnection(); Statement statement = connection.createStatement()) {
+                statement.executeQuery("select name from missing_table");
+            }
+        });
+
+        verify(metricsAggregator).record("JdbcStatementErrors", StandardUnit.COUNT, queryName("unattributed"), 1.0);
+    }
+
+    @Test
+    void statementUnderTheThreshold_IsNotLogged() throws SQLException {
+        select(proxy(new StatementMetricsListener(metricsAggregator, database, 10_000, true)));
+
+        assertTrue(logged.list.isEmpty());
+    }
+
+    @Test
+    void slowStatement_IsLoggedWithItsSql() throws SQLException {
+        select(proxy(new StatementMetricsListener(metricsAggregator, database, 0, false)));
+
+        // Without EXPLAIN the warning is all there is, and it is logged on the calling thread
+        assertEquals(1, logged.list.size());
+        ILoggingEvent event = logged.list.get(0);
+        assertEquals(Level.WARN, event.getLevel());
+        assertTrue(event.getFormattedMessage().startsWith("Slow query ("));
+        assertTrue(event.getFormattedMessage().endsWith("unattributed): " + SELECT));
+    }
+
+    @Test
+    void slowSelect_IsExplainedWithItsParameters() throws Exception {
+        select(proxy(new StatementMetricsListener(metricsAggregator, database, 0, true)));
+
+        ILoggingEvent explain = awaitExplain();
+        assertEquals("slow-query-explain", explain.getThreadName());
+        assertTrue(explain.getFormattedMessage().startsWith("EXPLAIN " + SELECT + "\n"));
+        assertTrue(explain.getFormattedMessage().toUpperCase().contains("PERSON"));
+    }
+
+    @Test
+    void slowUpdate_IsNotExplained() throws Exception {
+        DataSource proxy = proxy(new StatementMetricsListener(metricsAggregator, database, 0, true));
+
+        try (Connection connection = proxy.getConnection();
+             PreparedStatement statement = connection.prepareStatement("update person set name = ? where id = ?")) {
+            statement.setString(1, "Jane");
+            statement.setInt(2, 1);
+            statement.executeUpdate();
+        }
+        // A select after it is, so once that EXPLAIN is logged the update would have been too
+        select(proxy);
+
+        assertTrue(awaitExplain().getFormattedMessage().startsWith("EXPLAIN " + SELECT));
+        synchronized (logged) {
+            assertEquals(1, logged.list.stream().filter(event -> event.getFormattedMessage().startsWith("EXPLAIN")).count());
+        }
+    }
+
+    private DataSource proxy(StatementMetricsListener listener) {
+        return ProxyDataSourceBuilder.create(database).listener(listener).build();
+    }
+
+    private static String select(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(SELECT)) {
+            statement.setInt(1, 1);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getString(1) : null;
+            }
+        }
+    }
+
+    private static List<Dimension> queryName(String operation) {
+        return List.of(Dimension.builder().name("QueryName").value(operation).build());
+    }
+
+    private ILoggingEvent awaitExplain() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (System.currentTimeMillis() < deadline) {
+            // The appender appends under its own lock
+            synchronized (logged) {
+                for (ILoggingEvent event : logged.list) {
+                    if (event.getFormattedMessage().startsWith("EXPLAIN")) {
+                        return event;
+                    }
+                }
+            }
+            Thread.sleep(10);
+        }
+        return fail("No EXPLAIN was logged");
+    }
+}
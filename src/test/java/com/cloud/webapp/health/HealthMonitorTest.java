@@ -0,0 +1,104 @@
+package com.cloud.webapp.health;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HealthMonitorTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private HealthMonitor monitor;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        monitor.shutdown();
+    }
+
+    @Test
+    void nonCriticalFailure_IsReportedButStaysReady() {
+        monitor = new HealthMonitor(List.of(probe("database", true, () -> { }),
+                probe("s3", false, () -> { throw new IllegalStateException("Access Denied"); })), 5000, 500, 15000);
+
+        monitor.probe();
+
+        assertTrue(monitor.isReady());
+        assertEquals("Access Denied", monitor.getSnapshot().results().get("s3").error());
+    }
+
+    @Test
+    void criticalFailure_IsNotReadyButStillLive() {
+        monitor = new HealthMonitor(List.of(probe("database", true, () -> { throw new IllegalStateException("down"); })),
+                5000, 500, 15000);
+
+        monitor.probe();
+
+        assertFalse(monitor.isReady());
+        assertTrue(monitor.isLive());
+    }
+
+    @Test
+    void staleSnapshot_IsNotReady() {
+        monitor = new HealthMonitor(List.of(probe("database", true, () -> { })), 5000, 500, 15000);
+
+        monitor.probe();
+
+        assertTrue(monitor.isReady(Instant.now()));
+        assertFalse(monitor.isReady(Instant.now().plusSeconds(20)));
+        assertFalse(monitor.isLive(Instant.now().plusSeconds(20)));
+    }
+
+    @Test
+    void hangingProbe_TimesOutAndIsNotRestarted() {
+        AtomicInteger started = new AtomicInteger();
+        monitor = new HealthMonitor(List.of(probe("database", true, () -> {
+            started.incrementAndGet();
+            release.await();
+        })), 5000, 50, 15000);
+
+        monitor.probe();
+        monitor.probe();
+
+        assertFalse(monitor.isReady());
+        assertEquals("Previous check still running", monitor.getSnapshot().results().get("database").error());
+        assertEquals(1, started.get());
+    }
+
+    @Test
+    void noRoundYet_IsNotReady() {
+        monitor = new HealthMonitor(List.of(probe("database", true, () -> { })), 5000, 500, 15000);
+
+        assertFalse(monitor.isReady());
+    }
+
+    private static HealthProbe probe(String name, boolean critical, Check check) {
+        return new HealthProbe() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public boolean critical() {
+                return critical;
+            }
+
+            @Override
+            public void check() throws Exception {
+                check.run();
+            }
+        };
+    }
+
+    private interface Check {
+        void run() throws Exception;
+    }
+}
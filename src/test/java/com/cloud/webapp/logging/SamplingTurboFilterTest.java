@@ -0,0 +1,77 @@
+package com.cloud.webapp.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SamplingTurboFilterTest {
+
+    private final LoggerContext context = new LoggerContext();
+    private final Logger health = context.getLogger("com.cloud.webapp.controller.HealthCheckController");
+    private final Logger other = context.getLogger("com.cloud.webapp.service.S3Service");
+
+    @Test
+    void sampleRate_KeepsOneInNInfoEvents() {
+        SamplingTurboFilter filter = start(filter -> filter.setSampleRate(10));
+
+        int kept = 0;
+        for (int i = 0; i < 100; i++) {
+            if (filter.decide(null, health, Level.INFO, "GET /healthz", null, null) == FilterReply.NEUTRAL) {
+                kept++;
+            }
+        }
+
+        assertEquals(10, kept);
+        assertEquals(90, filter.getSuppressedCount());
+    }
+
+    @Test
+    void maxPerSecond_NeverDropsWarningsOrOtherLoggers() {
+        SamplingTurboFilter filter = start(filter -> filter.setMaxPerSecond(1));
+
+        int denied = 0;
+        for (int i = 0; i < 3; i++) {
+            if (filter.decide(null, health, Level.INFO, "GET /healthz", null, null) == FilterReply.DENY) {
+                denied++;
+            }
+        }
+
+        assertTrue(denied >= 1);
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, health, Level.ERROR, "failed", null, null));
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, health, Level.INFO, null, null, null));
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, other, Level.INFO, "unrelated", null, null));
+    }
+
+    @Test
+    void disabledDebugEvents_LeaveTheInfoBudgetUntouched() {
+        health.setLevel(Level.INFO);
+        SamplingTurboFilter filter = start(filter -> {
+            filter.setLevel("DEBUG");
+            filter.setSampleRate(2);
+            filter.setMaxPerSecond(1);
+        });
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(FilterReply.NEUTRAL, filter.decide(null, health, Level.DEBUG, "probe {}", null, null));
+        }
+
+        assertEquals(0, filter.getSuppressedCount());
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, health, Level.INFO, "GET /healthz", null, null));
+    }
+
+    private SamplingTurboFilter start(Consumer<SamplingTurboFilter> configure) {
+        SamplingTurboFilter filter = new SamplingTurboFilter();
+        filter.setContext(context);
+        filter.setLoggerName("com.cloud.webapp.controller.HealthCheckController");
+        configure.accept(filter);
+        filter.start();
+        return filter;
+    }
+}
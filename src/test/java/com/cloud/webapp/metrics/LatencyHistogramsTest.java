@@ -0,0 +1,67 @@
+package com.cloud.webapp.metrics;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.cloudwatch.model.MetricDatum;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LatencyHistogramsTest {
+
+    @Test
+    void collect_ExportsDistributionAndPercentilesOncePerInterval() {
+        LatencyHistograms histograms = new LatencyHistograms(10);
+        for (int i = 1; i <= 1000; i++) {
+            histograms.record("fetchUserDetails", TimeUnit.MILLISECONDS.toNanos(i));
+        }
+
+        List<MetricDatum> exported = histograms.collect(Instant.now());
+
+        MetricDatum distribution = exported.stream()
+                .filter(datum -> datum.metricName().equals("ApiLatency"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(1000.0, distribution.counts().stream().mapToDouble(Double::doubleValue).sum());
+        assertTrue(distribution.values().size() <= 150);
+        MetricDatum p99 = exported.stream()
+                .filter(datum -> datum.metricName().equals("ApiLatencyP99"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(990.0, p99.value(), 990.0 * 0.01);
+        MetricDatum legacy = exported.stream()
+                .filter(datum -> datum.metricName().equals("ApiResponseTime"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(distribution.values(), legacy.values());
+        assertEquals(distribution.counts(), legacy.counts());
+
+        assertTrue(histograms.collect(Instant.now()).isEmpty());
+    }
+
+    @Test
+    void snapshot_KeepsTotalsAcrossExports() {
+        LatencyHistograms histograms = new LatencyHistograms(10);
+        histograms.record("getProfilePic", TimeUnit.MILLISECONDS.toNanos(5));
+        histograms.collect(Instant.now());
+        histograms.record("getProfilePic", TimeUnit.MILLISECONDS.toNanos(7));
+
+        LatencyHistograms.ApiLatency latency = histograms.snapshot("getProfilePic");
+
+        assertEquals(1, latency.currentInterval().count());
+        assertEquals(2, latency.sinceStart().count());
+        assertNull(histograms.snapshot("unknown"));
+    }
+
+    @Test
+    void record_ClampsValuesOutsideTrackableRange() {
+        LatencyHistograms histograms = new LatencyHistograms(10);
+        histograms.record("registerUser", TimeUnit.MINUTES.toNanos(5));
+
+        assertEquals(1, histograms.snapshot("registerUser").sinceStart().count());
+    }
+}
@@ -0,0 +1,87 @@
+package com.cloud.webapp.metrics;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.cloudwatch.model.MetricDatum;
+import software.amazon.awssdk.services.cloudwatch.model.StandardUnit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MetricsAggregatorTest {
+
+    private final InMemoryMetricsSink sink = new InMemoryMetricsSink();
+
+    @Test
+    void flush_PublishesOneStatisticSetPerSeries() {
+        MetricsAggregator aggregator = new MetricsAggregator(sink, List.of(), "Test", 60, 100);
+        aggregator.record("ApiResponseTime", StandardUnit.MILLISECONDS, "APIName", "fetchUserDetails", 10);
+        aggregator.record("ApiResponseTime", StandardUnit.MILLISECONDS, "APIName", "fetchUserDetails", 30);
+        aggregator.record("ApiResponseTime", StandardUnit.MILLISECONDS, "APIName", "fetchUserDetails", 20);
+        aggregator.record("ApiCallCount", StandardUnit.COUNT, "APIName", "fetchUserDetails", 1);
+
+        assertEquals(2, aggregator.flush());
+
+        MetricDatum responseTime = sink.getPublished().stream()
+                .filter(datum -> datum.metricName().equals("ApiResponseTime"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(3.0, responseTime.statisticValues().sampleCount());
+        assertEquals(60.0, responseTime.statisticValues().sum());
+        assertEquals(10.0, responseTime.statisticValues().minimum());
+        assertEquals(30.0, responseTime.statisticValues().maximum());
+    }
+
+    @Test
+    void flush_ResetsSeriesBetweenIntervals() {
+        MetricsAggregator aggregator = new MetricsAggregator(sink, List.of(), "Test", 60, 100);
+        aggregator.record("ApiCallCount", StandardUnit.COUNT, "APIName", "getProfilePic", 1);
+        aggregator.flush();
+        sink.clear();
+
+        assertEquals(0, aggregator.flush());
+        assertTrue(sink.getPublished().isEmpty());
+    }
+
+    @Test
+    void record_DropsNewSeriesWhenFull() {
+        MetricsAggregator aggregator = new MetricsAggregator(sink, List.of(), "Test", 60, 1);
+        aggregator.record("ApiCallCount", StandardUnit.COUNT, "APIName", "registerUser", 1);
+        aggregator.record("ApiCallCount", StandardUnit.COUNT, "APIName", "deleteProfilePic", 1);
+        aggregator.record("ApiCallCount", StandardUnit.COUNT, "APIName", "registerUser", 1);
+
+        assertEquals(1, aggregator.getDroppedCount());
+        assertEquals(1, aggregator.flush());
+        assertEquals(2.0, sink.getPublished().get(0).statisticValues().sampleCount());
+    }
+
+    @Test
+    void record_CountsEverySampleUnderContention() throws Exception {
+        MetricsAggregator aggregator = new MetricsAggregator(sink, List.of(), "Test", 60, 100);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    aggregator.record("ApiCallCount", StandardUnit.COUNT, "APIName", "fetchUserDetails", 1);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+
+        aggregator.flush();
+
+        assertEquals(80_000.0, sink.getPublished().get(0).statisticValues().sampleCount());
+        assertEquals(80_000.0, sink.getPublished().get(0).statisticValues().sum());
+    }
+}
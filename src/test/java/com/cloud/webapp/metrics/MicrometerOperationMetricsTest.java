@@ -0,0 +1,29 @@
+package com.cloud.webapp.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MicrometerOperationMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MicrometerOperationMetrics metrics = new MicrometerOperationMetrics(meterRegistry);
+
+    @Test
+    void completed_RecordsIntoOneTimerPerOperationKindAndOutcome() {
+        metrics.completed("S3.uploadImage", TimedOperation.Kind.EXTERNAL, "success", TimeUnit.MILLISECONDS.toNanos(5));
+        metrics.completed("S3.uploadImage", TimedOperation.Kind.EXTERNAL, "success", TimeUnit.MILLISECONDS.toNanos(7));
+        metrics.completed("S3.uploadImage", TimedOperation.Kind.EXTERNAL, "S3Exception", TimeUnit.MILLISECONDS.toNanos(9));
+
+        Timer success = meterRegistry.get("operation.latency")
+                .tags("operation", "S3.uploadImage", "kind", "external", "outcome", "success")
+                .timer();
+        assertEquals(2, success.count());
+        assertEquals(12.0, success.totalTime(TimeUnit.MILLISECONDS), 0.001);
+        assertEquals(2, meterRegistry.get("operation.latency").timers().size());
+    }
+}
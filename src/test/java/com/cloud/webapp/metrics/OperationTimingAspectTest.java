@@ -0,0 +1,101 @@
+package com.cloud.webapp.metrics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OperationTimingAspectTest {
+
+    private final List<String> completed = new ArrayList<>();
+    private final List<Integer> inFlight = new ArrayList<>();
+    private OperationTimer operationTimer;
+    private SampleService service;
+
+    @BeforeEach
+    void setUp() {
+        OperationMetrics registry = new OperationMetrics() {
+            @Override
+            public void started(String operation, TimedOperation.Kind kind, int concurrent) {
+                inFlight.add(concurrent);
+            }
+
+            @Override
+            public void completed(String operation, TimedOperation.Kind kind, String outcome, long durationNanos) {
+                assertTrue(durationNanos >= 0);
+                completed.add(operation + ":" + kind + ":" + outcome);
+            }
+        };
+        operationTimer = new OperationTimer(List.of(registry));
+        AspectJProxyFactory factory = new AspectJProxyFactory(new SampleService());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new OperationTimingAspect(operationTimer));
+        service = factory.getProxy();
+    }
+
+    @Test
+    void successfulCall_IsRecordedWithSuccessOutcome() {
+        service.fetch();
+
+        assertEquals(List.of("fetchSample:SERVICE:success"), completed);
+        assertEquals(List.of(1), inFlight);
+        assertEquals(0, operationTimer.getInFlight("fetchSample"));
+    }
+
+    @Test
+    void failedCall_IsRecordedWithExceptionOutcome() {
+        assertThrows(IllegalStateException.class, service::fail);
+
+        assertEquals(List.of("SampleService.fail:SERVICE:IllegalStateException"), completed);
+        assertEquals(0, operationTimer.getInFlight("SampleService.fail"));
+    }
+
+    @Test
+    void unannotatedMethod_IsNotTimed() {
+        service.untimed();
+
+        assertTrue(completed.isEmpty());
+    }
+
+    @Test
+    void asyncCall_IsRecordedWhenItsFutureCompletes() {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+
+        CompletableFuture<String> result = service.fetchAsync(pending);
+
+        assertTrue(completed.isEmpty());
+        assertEquals(1, operationTimer.getInFlight("fetchAsync"));
+        pending.completeExceptionally(new IllegalStateException("boom"));
+        assertTrue(result.isCompletedExceptionally());
+        assertEquals(List.of("fetchAsync:EXTERNAL:IllegalStateException"), completed);
+        assertEquals(0, operationTimer.getInFlight("fetchAsync"));
+    }
+
+    public static class SampleService {
+
+        @TimedOperation(value = "fetchAsync", kind = TimedOperation.Kind.EXTERNAL)
+        public CompletableFuture<String> fetchAsync(CompletableFuture<String> pending) {
+            return pending;
+        }
+
+        @TimedOperation("fetchSample")
+        public String fetch() {
+            return "ok";
+        }
+
+        @TimedOperation
+        public void fail() {
+            throw new IllegalStateException("boom");
+        }
+
+        public void untimed() {
+        }
+    }
+}
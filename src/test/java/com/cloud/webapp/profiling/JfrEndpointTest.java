@@ -0,0 +1,35 @@
+package com.cloud.webapp.profiling;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+public class JfrEndpointTest {
+
+    private final JfrProfiler jfrProfiler = mock(JfrProfiler.class);
+    private final JfrEndpoint endpoint = new JfrEndpoint(jfrProfiler);
+    private final JfrProfiler.Summary summary = new JfrProfiler.Summary(false, null, null, List.of(), List.of());
+
+    @Test
+    void startAndStop_AreHandedToTheProfiler() {
+        when(jfrProfiler.start()).thenReturn(summary);
+        when(jfrProfiler.stop()).thenReturn(summary);
+
+        assertSame(summary, endpoint.control("start"));
+        assertSame(summary, endpoint.control("stop"));
+    }
+
+    @Test
+    void unknownAction_IsRejected() {
+        assertThrows(InvalidEndpointRequestException.class, () -> endpoint.control("restart"));
+
+        verifyNoInteractions(jfrProfiler);
+    }
+}
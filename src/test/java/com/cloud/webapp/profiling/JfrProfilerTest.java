@@ -0,0 +1,140 @@
+package com.cloud.webapp.profiling;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+public class JfrProfilerTest {
+
+    private final List<JfrProfiler> profilers = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        profilers.forEach(JfrProfiler::shutdown);
+    }
+
+    @Test
+    void startAndStop_SummariseTheOperationEventsInBetween() {
+        JfrProfiler profiler = profiler(300);
+
+        JfrProfiler.Summary started = profiler.start();
+        assertTrue(started.recording());
+        assertNotNull(started.startedAt());
+        assertNull(started.stoppedAt());
+
+        OperationEvent event = new OperationEvent();
+        event.begin();
+        event.kind = "REPOSITORY";
+        event.operation = "UserRepository.findByEmail";
+        event.outcome = "success";
+        event.commit();
+
+        JfrProfiler.Summary recorded = awaitSummary(profiler, summary -> !summary.topOperations().isEmpty());
+        assertEquals("UserRepository.findByEmail", recorded.topOperations().get(0).operation());
+        assertEquals(1, recorded.slowestEvents().size());
+
+        JfrProfiler.Summary stopped = profiler.stop();
+        assertFalse(stopped.recording());
+        assertNotNull(stopped.stoppedAt());
+        assertEquals(1, stopped.topOperations().size());
+    }
+
+    @Test
+    void startWhileRecording_KeepsTheRunningRecording() {
+        JfrProfiler profiler = profiler(300);
+        Instant startedAt = profiler.start().startedAt();
+
+        JfrProfiler.Summary again = profiler.start();
+
+        assertTrue(again.recording());
+        assertEquals(startedAt, again.startedAt());
+    }
+
+    @Test
+    void recording_StopsByItselfAfterMaxDuration() {
+        JfrProfiler profiler = profiler(1);
+        profiler.start();
+
+        JfrProfiler.Summary stopped = awaitSummary(profiler, summary -> !summary.recording());
+
+        assertNotNull(stopped.stoppedAt());
+    }
+
+    @Test
+    void summary_RanksOperationsByTotalTime() {
+        JfrProfiler profiler = profiler(300);
+        for (int i = 0; i < 3; i++) {
+            record(profiler, "REPOSITORY", "UserRepository.findByEmail", "success", 2);
+        }
+        record(profiler, "EXTERNAL", "S3.uploadImage", "success", 5);
+        record(profiler, "SERVICE", "updateUser", "GeneralServiceException", 1);
+
+        List<JfrProfiler.OperationSummary> operations = profiler.summary().topOperations();
+
+        assertEquals(List.of("UserRepository.findByEmail", "S3.uploadImage", "updateUser"),
+                operations.stream().map(JfrProfiler.OperationSummary::operation).toList());
+        JfrProfiler.OperationSummary lookups = operations.get(0);
+        assertEquals(3, lookups.count());
+        assertEquals(0, lookups.failures());
+        assertEquals(6.0, lookups.totalMs(), 1e-9);
+        assertEquals(2.0, lookups.meanMs(), 1e-9);
+        assertEquals(2.0, lookups.maxMs(), 1e-9);
+        assertEquals(1, operations.get(2).failures());
+    }
+
+    @Test
+    void summary_KeepsTheTenSlowestEventsSlowestFirst() {
+        JfrProfiler profiler = profiler(300);
+        for (int millis = 1; millis <= 12; millis++) {
+            record(profiler, "SERVICE", "op" + millis, "success", millis);
+        }
+
+        List<JfrProfiler.SlowEvent> slowest = profiler.summary().slowestEvents();
+
+        assertEquals(10, slowest.size());
+        assertEquals("op12", slowest.get(0).operation());
+        assertEquals(12.0, slowest.get(0).durationMs(), 1e-9);
+        assertEquals("op3", slowest.get(9).operation());
+    }
+
+    private JfrProfiler profiler(long maxDurationSeconds) {
+        JfrProfiler profiler = new JfrProfiler(maxDurationSeconds);
+        profilers.add(profiler);
+        return profiler;
+    }
+
+    private static void record(JfrProfiler profiler, String kind, String operation, String outcome, long millis) {
+        profiler.record(kind, operation, outcome, TimeUnit.MILLISECONDS.toNanos(millis), Instant.now(), "test");
+    }
+
+    // Streamed events arrive about once a second
+    private static JfrProfiler.Summary awaitSummary(JfrProfiler profiler, Predicate<JfrProfiler.Summary> condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            JfrProfiler.Summary summary = profiler.summary();
+            if (condition.test(summary)) {
+                return summary;
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        fail("Summary did not reach the expected state in time");
+        return null;
+    }
+}
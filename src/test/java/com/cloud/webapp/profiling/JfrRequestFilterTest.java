@@ -0,0 +1,76 @@
+package com.cloud.webapp.profiling;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JfrRequestFilterTest {
+
+    private final JfrRequestFilter filter = new JfrRequestFilter();
+    private final BlockingQueue<RecordedEvent> events = new LinkedBlockingQueue<>();
+    private RecordingStream recording;
+
+    @BeforeEach
+    void startRecording() {
+        recording = new RecordingStream();
+        recording.enable(HttpRequestEvent.NAME).withoutStackTrace().withThreshold(Duration.ZERO);
+        recording.onEvent(HttpRequestEvent.NAME, events::add);
+        recording.startAsync();
+    }
+
+    @AfterEach
+    void stopRecording() {
+        recording.close();
+    }
+
+    @Test
+    void request_IsRecordedWithItsRouteAndStatus() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/user/self");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/v1/user/self");
+            ((MockHttpServletResponse) res).setStatus(503);
+        });
+
+        RecordedEvent event = nextEvent();
+        assertEquals("GET /v1/user/self", event.getString("endpoint"));
+        assertEquals(503, event.getInt("status"));
+        assertEquals("error", event.getString("outcome"));
+    }
+
+    @Test
+    void failedRequest_IsRecordedWithTheExceptionAsOutcome() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/v1/user");
+
+        assertThrows(IllegalStateException.class, () -> filter.doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> {
+                    throw new IllegalStateException("boom");
+                }));
+
+        RecordedEvent event = nextEvent();
+        assertEquals("POST /v1/user", event.getString("endpoint"));
+        assertEquals("IllegalStateException", event.getString("outcome"));
+    }
+
+    // Streamed events arrive about once a second
+    private RecordedEvent nextEvent() throws InterruptedException {
+        RecordedEvent event = events.poll(10, TimeUnit.SECONDS);
+        assertNotNull(event, "No HttpRequestEvent was recorded");
+        return event;
+    }
+}
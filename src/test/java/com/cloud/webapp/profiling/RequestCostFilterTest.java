@@ -0,0 +1,58 @@
+package com.cloud.webapp.profiling;
+
+import com.cloud.webapp.metrics.InMemoryMetricsSink;
+import com.cloud.webapp.metrics.MetricsAggregator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RequestCostFilterTest {
+
+    private RequestCostTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new RequestCostTracker(new MetricsAggregator(new InMemoryMetricsSink(), List.of(), "Test", 60, 100));
+    }
+
+    @Test
+    void request_IsRecordedUnderItsRoutePattern() throws Exception {
+        RequestCostFilter filter = new RequestCostFilter(tracker, false);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/user/self");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/v1/user/self");
+            res.getWriter().write(String.format("%s", new byte[64 * 1024].length));
+        });
+
+        RequestCostTracker.EndpointCost cost = tracker.snapshot().get("GET /v1/user/self");
+        assertNotNull(cost);
+        assertEquals(1, cost.requests());
+        assertTrue(cost.maxAllocatedBytes() >= 64 * 1024);
+        assertNull(response.getHeader(RequestCostFilter.DEBUG_HEADER));
+    }
+
+    @Test
+    void debugHeader_IsReturnedOnlyWhenEnabledAndRequested() throws Exception {
+        RequestCostFilter filter = new RequestCostFilter(tracker, true);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/healthz");
+        request.addHeader(RequestCostFilter.DEBUG_HEADER, "true");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> res.getWriter().write("ok"));
+
+        assertTrue(response.getHeader(RequestCostFilter.DEBUG_HEADER).startsWith("alloc="));
+        assertEquals("ok", response.getContentAsString());
+        assertNotNull(tracker.snapshot().get("GET unmapped"));
+    }
+}
@@ -0,0 +1,101 @@
+package com.cloud.webapp.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import static com.cloud.webapp.utils.constants.TOKEN_ENDPOINT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+public class BearerTokenAuthenticationFilterTest {
+
+    private static final String EMAIL = "jane.doe@example.com";
+
+    // The filter's only collaborator; a real one, so nothing here can reach a user lookup
+    private final TokenService tokenService = spy(new TokenService("test-secret", 900));
+    private final BearerTokenAuthenticationFilter filter =
+            new BearerTokenAuthenticationFilter(tokenService, TOKEN_ENDPOINT);
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void validBearerToken_AuthenticatesTheRequest() throws Exception {
+        MockHttpServletRequest request = request("Bearer " + tokenService.issue(EMAIL));
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertTrue(authentication.isAuthenticated());
+        assertEquals(EMAIL, authentication.getName());
+        assertNull(authentication.getCredentials());
+        assertSame(request, chain.getRequest());
+    }
+
+    @Test
+    void lowerCaseScheme_IsAccepted() throws Exception {
+        filter.doFilter(request("bearer " + tokenService.issue(EMAIL)), new MockHttpServletResponse(),
+                new MockFilterChain());
+
+        assertEquals(EMAIL, SecurityContextHolder.getContext().getAuthentication().getName());
+    }
+
+    @Test
+    void invalidBearerToken_LeavesTheRequestAnonymous() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request("Bearer " + new TokenService("other-secret", 900).issue(EMAIL)),
+                new MockHttpServletResponse(), chain);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    void basicCredentials_ArePassedOnUntouched() throws Exception {
+        MockHttpServletRequest request = request("Basic amFuZS5kb2VAZXhhbXBsZS5jb206c2VjcmV0");
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertSame(request, chain.getRequest());
+        assertEquals("Basic amFuZS5kb2VAZXhhbXBsZS5jb206c2VjcmV0",
+                ((MockHttpServletRequest) chain.getRequest()).getHeader(HttpHeaders.AUTHORIZATION));
+        verifyNoInteractions(tokenService);
+    }
+
+    @Test
+    void tokenEndpoint_DoesNotAcceptABearerToken() throws Exception {
+        MockHttpServletRequest request = request("Bearer " + tokenService.issue(EMAIL));
+        request.setServletPath(TOKEN_ENDPOINT);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertSame(request, chain.getRequest());
+    }
+
+    private static MockHttpServletRequest request(String authorization) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/user/self");
+        request.setServletPath("/v1/user/self");
+        request.addHeader(HttpHeaders.AUTHORIZATION, authorization);
+        return request;
+    }
+}
@@ -0,0 +1,101 @@
+package com.cloud.webapp.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CachingAuthenticationProviderTest {
+
+    private static final String EMAIL = "jane.doe@example.com";
+
+    private final PasswordEncoder passwordEncoder = spy(new BCryptPasswordEncoder(4));
+    private final UserDetailsService userDetailsService = mock(UserDetailsService.class);
+    private final CredentialCache credentialCache = new CredentialCache(60, 100);
+    private CachingAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        DaoAuthenticationProvider dao = new DaoAuthenticationProvider(passwordEncoder);
+        dao.setUserDetailsService(userDetailsService);
+        provider = new CachingAuthenticationProvider(dao, credentialCache);
+        when(userDetailsService.loadUserByUsername(EMAIL)).thenReturn(user("secret"));
+    }
+
+    @Test
+    void repeatedCredentials_SkipTheLookupAndBcrypt() {
+        provider.authenticate(basic("secret"));
+        Authentication second = provider.authenticate(basic("secret"));
+
+        assertTrue(second.isAuthenticated());
+        assertEquals(EMAIL, second.getName());
+        verify(userDetailsService, times(1)).loadUserByUsername(EMAIL);
+        verify(passwordEncoder, times(1)).matches(any(), any());
+    }
+
+    @Test
+    void wrongPassword_IsNeverCached() {
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(basic("wrong")));
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(basic("wrong")));
+
+        verify(userDetailsService, times(2)).loadUserByUsername(EMAIL);
+    }
+
+    @Test
+    void wrongPasswordAfterASuccessfulLogin_IsCheckedAgainstTheDatabase() {
+        provider.authenticate(basic("secret"));
+
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(basic("wrong")));
+
+        verify(userDetailsService, times(2)).loadUserByUsername(EMAIL);
+    }
+
+    @Test
+    void passwordChangedDuringTheLookup_OldPasswordIsNotCached() {
+        // The change commits between this login reading the row and finishing BCrypt
+        when(userDetailsService.loadUserByUsername(EMAIL)).thenAnswer(invocation -> {
+            credentialCache.invalidate(EMAIL);
+            return user("secret");
+        });
+
+        provider.authenticate(basic("secret"));
+        provider.authenticate(basic("secret"));
+
+        verify(userDetailsService, times(2)).loadUserByUsername(EMAIL);
+    }
+
+    @Test
+    void passwordChange_EndsTheCachedLogin() {
+        provider.authenticate(basic("secret"));
+
+        credentialCache.invalidate(EMAIL);
+        when(userDetailsService.loadUserByUsername(EMAIL)).thenReturn(user("new-secret"));
+
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(basic("secret")));
+    }
+
+    private UserDetails user(String password) {
+        return User.withUsername(EMAIL).password(new BCryptPasswordEncoder(4).encode(password)).roles("USER").build();
+    }
+
+    private static Authentication basic(String password) {
+        return UsernamePasswordAuthenticationToken.unauthenticated(EMAIL, password);
+    }
+}
@@ -0,0 +1,88 @@
+package com.cloud.webapp.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CredentialCacheTest {
+
+    private static final String EMAIL = "jane.doe@example.com";
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final CredentialCache credentialCache = new CredentialCache(60, 100, nanos::get);
+    private final UserDetails principal = User.withUsername(EMAIL).password("hash").roles("USER").build();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void cachedCredentials_MatchOnlyTheSamePassword() {
+        credentialCache.put(EMAIL, "secret", principal, credentialCache.stamp());
+
+        assertSame(principal, credentialCache.getIfPresent(EMAIL, "secret"));
+        assertNull(credentialCache.getIfPresent(EMAIL, "Secret"));
+        assertNull(credentialCache.getIfPresent("john.doe@example.com", "secret"));
+    }
+
+    @Test
+    void entry_ExpiresAfterTheTtl() {
+        credentialCache.put(EMAIL, "secret", principal, credentialCache.stamp());
+
+        nanos.addAndGet(Duration.ofSeconds(59).toNanos());
+        assertSame(principal, credentialCache.getIfPresent(EMAIL, "secret"));
+        nanos.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertNull(credentialCache.getIfPresent(EMAIL, "secret"));
+    }
+
+    @Test
+    void cache_IsBoundedByMaxSize() throws InterruptedException {
+        CredentialCache bounded = new CredentialCache(60, 1, nanos::get);
+        bounded.put(EMAIL, "secret", principal, bounded.stamp());
+        bounded.put("john.doe@example.com", "secret", principal, bounded.stamp());
+
+        // Caffeine evicts in the background
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (bounded.getIfPresent(EMAIL, "secret") != null
+                && bounded.getIfPresent("john.doe@example.com", "secret") != null) {
+            assertTrue(System.currentTimeMillis() < deadline, "Neither entry was evicted");
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void invalidationDuringALookup_StopsItsResultFromBeingCached() {
+        long stamp = credentialCache.stamp();
+        credentialCache.invalidate(EMAIL);
+
+        credentialCache.put(EMAIL, "old-secret", principal, stamp);
+
+        assertNull(credentialCache.getIfPresent(EMAIL, "old-secret"));
+    }
+
+    @Test
+    void invalidationInsideATransaction_EvictsAgainAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        credentialCache.invalidate(EMAIL);
+        // A login that started after the eviction still reads the old password until the change commits
+        credentialCache.put(EMAIL, "old-secret", principal, credentialCache.stamp());
+        assertSame(principal, credentialCache.getIfPresent(EMAIL, "old-secret"));
+
+        TransactionSynchronizationUtils.triggerAfterCommit();
+
+        assertNull(credentialCache.getIfPresent(EMAIL, "old-secret"));
+    }
+}
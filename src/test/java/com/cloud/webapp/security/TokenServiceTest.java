@@ -0,0 +1,80 @@
+package com.cloud.webapp.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class TokenServiceTest {
+
+    private static final String EMAIL = "jane.doe@example.com";
+
+    private final TokenService tokenService = new TokenService("test-secret", 900);
+
+    @Test
+    void issuedToken_ValidatesToItsEmail() {
+        assertEquals(EMAIL, tokenService.validate(tokenService.issue(EMAIL)));
+    }
+
+    @Test
+    void emailContainingTheSeparator_SurvivesTheRoundTrip() {
+        assertEquals("jane|doe@example.com", tokenService.validate(tokenService.issue("jane|doe@example.com")));
+    }
+
+    @Test
+    void tokenFromAnotherInstanceWithTheSameSecret_IsValid() {
+        assertEquals(EMAIL, new TokenService("test-secret", 900).validate(tokenService.issue(EMAIL)));
+    }
+
+    @Test
+    void tokenSignedWithAnotherKey_IsRejected() {
+        assertNull(new TokenService("other-secret", 900).validate(tokenService.issue(EMAIL)));
+        // Without a configured secret every instance signs with its own random key
+        assertNull(new TokenService("", 900).validate(new TokenService("", 900).issue(EMAIL)));
+    }
+
+    @Test
+    void expiredToken_IsRejected() {
+        TokenService shortLived = new TokenService("test-secret", 0);
+
+        assertNull(shortLived.validate(shortLived.issue(EMAIL)));
+    }
+
+    @Test
+    void payloadChangedUnderTheSameSignature_IsRejected() {
+        String token = tokenService.issue(EMAIL);
+        String signature = token.substring(token.indexOf('.'));
+        long farFuture = Long.MAX_VALUE;
+
+        assertNull(tokenService.validate(encode("john.doe@example.com|" + farFuture) + signature));
+        assertNull(tokenService.validate(encode(EMAIL + "|" + farFuture) + signature));
+    }
+
+    @Test
+    void alteredSignature_IsRejected() {
+        String token = tokenService.issue(EMAIL);
+        char last = token.charAt(token.length() - 1);
+
+        assertNull(tokenService.validate(token.substring(0, token.length() - 1) + (last == 'A' ? 'B' : 'A')));
+    }
+
+    @Test
+    void truncatedOrMalformedTokens_AreRejected() {
+        String token = tokenService.issue(EMAIL);
+        int separator = token.indexOf('.');
+
+        assertNull(tokenService.validate(token.substring(0, token.length() - 4)));
+        assertNull(tokenService.validate(token.substring(0, separator + 1)));
+        assertNull(tokenService.validate(token.substring(0, separator)));
+        assertNull(tokenService.validate(token.substring(separator)));
+        assertNull(tokenService.validate(""));
+        assertNull(tokenService.validate("not base64!.not base64!"));
+    }
+
+    private static String encode(String claims) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(claims.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,55 @@
+package com.cloud.webapp.service;
+
+import com.cloud.webapp.entity.UserEntity;
+import com.cloud.webapp.repository.UserRepository;
+import com.cloud.webapp.security.RequestUserContext;
+import com.cloud.webapp.service.serviceimpl.CustomUserDetailsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CustomUserDetailsServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final CustomUserDetailsService service = new CustomUserDetailsService(
+            userRepository, new RequestUserContext(), List.of(" Admin@Example.com ", ""));
+
+    @Test
+    void verifiedConfiguredAdmin_GetsAdminRole() {
+        givenUser("admin@example.com", true);
+
+        assertEquals(List.of("ROLE_ADMIN"), authorities("admin@example.com"));
+    }
+
+    @Test
+    void unverifiedConfiguredAdmin_GetsNoRole() {
+        givenUser("admin@example.com", false);
+
+        assertTrue(authorities("admin@example.com").isEmpty());
+    }
+
+    @Test
+    void verifiedNormalUser_GetsNoRole() {
+        givenUser("user@example.com", true);
+
+        assertTrue(authorities("user@example.com").isEmpty());
+    }
+
+    private void givenUser(String email, boolean verified) {
+        UserEntity user = UserEntity.builder().email(email).password("hash").verified(verified).build();
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+    }
+
+    private List<String> authorities(String email) {
+        UserDetails details = service.loadUserByUsername(email);
+        return details.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
+    }
+}
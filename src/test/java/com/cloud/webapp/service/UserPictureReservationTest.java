@@ -0,0 +1,164 @@
+package com.cloud.webapp.service;
+
+import com.cloud.webapp.entity.UserEntity;
+import com.cloud.webapp.exceptions.Types.FieldAlreadyExistsException;
+import com.cloud.webapp.mapper.UserMapper;
+import com.cloud.webapp.repository.UserRepository;
+import com.cloud.webapp.security.CredentialCache;
+import com.cloud.webapp.security.RequestUserContext;
+import com.cloud.webapp.service.aws.S3PresignService;
+import com.cloud.webapp.service.aws.S3Service;
+import com.cloud.webapp.service.aws.SNSService;
+import com.cloud.webapp.service.image.ImageDiskCache;
+import com.cloud.webapp.service.image.ImageVariantService;
+import com.cloud.webapp.service.serviceimpl.UserServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Two uploads for the same user, each with the row as it was when its request authenticated. The reservation on the
+ * row decides which one may write to S3, so the other never leaves an object nothing points at.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserPictureReservationTest {
+
+    private static final String EMAIL = "jane.doe@example.com";
+
+    @MockBean
+    private PasswordHashingService passwordHashingService;
+    @MockBean
+    private UserMapper userMapper;
+    @MockBean
+    private ModelMapper modelMapper;
+    @MockBean
+    private S3Service s3Service;
+    @MockBean
+    private S3PresignService s3PresignService;
+    @MockBean
+    private ImageVariantService imageVariantService;
+    @MockBean
+    private ImageDiskCache imageDiskCache;
+    @MockBean
+    private SNSService snsService;
+    @MockBean
+    private CredentialCache credentialCache;
+    @MockBean
+    private TaskExecutor taskExecutor;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RequestUserContext requestUserContext;
+
+    @Autowired
+    private UserService userService;
+
+    private String pngKey;
+    private String jpgKey;
+
+    @BeforeEach
+    void setUp() {
+        UserEntity user = userRepository.save(UserEntity.builder()
+                .first_name("Jane")
+                .last_name("Doe")
+                .email(EMAIL)
+                .password("hash")
+                .verified(true)
+                .build());
+        pngKey = user.getId() + "/profilePic.png";
+        jpgKey = user.getId() + "/profilePic.jpg";
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void concurrentUploadsWithDifferentExtensions_OnlyOneWritesToS3() {
+        UserEntity seenByPng = userRepository.findByEmail(EMAIL).orElseThrow();
+        UserEntity seenByJpg = userRepository.findByEmail(EMAIL).orElseThrow();
+        // The jpg upload arrives while the png one is writing to S3; both passed the "no picture yet" check
+        when(s3Service.uploadImage(eq(pngKey), any(), any())).thenAnswer(invocation -> {
+            assertThrows(FieldAlreadyExistsException.class, () -> inRequest(seenByJpg, () ->
+                    userService.uploadProfilePicture(EMAIL, picture("me.jpg", "image/jpeg"))));
+            return "url";
+        });
+
+        inRequest(seenByPng, () -> userService.uploadProfilePicture(EMAIL, picture("me.png", "image/png")));
+
+        verify(s3Service, never()).uploadImage(eq(jpgKey), any(), any());
+        UserEntity stored = userRepository.findByEmail(EMAIL).orElseThrow();
+        assertEquals(pngKey, stored.getS3ObjectKey());
+        assertNull(stored.getPendingS3ObjectKey());
+    }
+
+    @Test
+    void uploadWithARowReadBeforeAnotherWasRecorded_IsAnExistingPicture() {
+        UserEntity seenByJpg = userRepository.findByEmail(EMAIL).orElseThrow();
+        inRequest(userRepository.findByEmail(EMAIL).orElseThrow(), () ->
+                userService.uploadProfilePicture(EMAIL, picture("me.png", "image/png")));
+
+        assertThrows(FieldAlreadyExistsException.class, () -> inRequest(seenByJpg, () ->
+                userService.uploadProfilePicture(EMAIL, picture("me.jpg", "image/jpeg"))));
+
+        verify(s3Service, never()).uploadImage(eq(jpgKey), any(), any());
+        assertEquals(pngKey, userRepository.findByEmail(EMAIL).orElseThrow().getS3ObjectKey());
+    }
+
+    // Runs as its own request, with the row its authentication loaded
+    private void inRequest(UserEntity authenticated, Runnable request) {
+        RequestAttributes enclosing = RequestContextHolder.getRequestAttributes();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        try {
+            requestUserContext.set(authenticated);
+            request.run();
+        } finally {
+            RequestContextHolder.setRequestAttributes(enclosing);
+        }
+    }
+
+    private static MockMultipartFile picture(String fileName, String contentType) {
+        return new MockMultipartFile("profilePic", fileName, contentType, new byte[]{1});
+    }
+
+    @SpringBootConfiguration
+    @EnableJpaRepositories(basePackageClasses = UserRepository.class)
+    @EntityScan(basePackageClasses = UserEntity.class)
+    @Import({UserServiceImpl.class, RequestUserContext.class})
+    static class Config {
+    }
+}
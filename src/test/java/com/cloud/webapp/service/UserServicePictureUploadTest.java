@@ -0,0 +1,285 @@
+package com.cloud.webapp.service;
+
+import com.cloud.webapp.DTO.PresignedUploadCompleteDTO;
+import com.cloud.webapp.DTO.PresignedUploadRequestDTO;
+import com.cloud.webapp.DTO.UserImageResponseDTO;
+import com.cloud.webapp.entity.UserEntity;
+import com.cloud.webapp.exceptions.Types.FieldAlreadyExistsException;
+import com.cloud.webapp.exceptions.Types.PayloadTooLargeException;
+import com.cloud.webapp.exceptions.Types.ResourceNotFoundException;
+import com.cloud.webapp.mapper.UserMapper;
+import com.cloud.webapp.repository.UserRepository;
+import com.cloud.webapp.security.RequestUserContext;
+import com.cloud.webapp.service.aws.S3PresignService;
+import com.cloud.webapp.service.aws.S3Service;
+import com.cloud.webapp.service.image.ImageVariantService;
+import com.cloud.webapp.service.serviceimpl.UserServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import software.amazon.awssdk.http.SdkHttpFullRequest;
+import software.amazon.awssdk.http.SdkHttpMethod;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class UserServicePictureUploadTest {
+
+    private static final String EMAIL = "jane.doe@example.com";
+    private static final UUID USER_ID = UUID.fromString("d290f1ee-6c54-4b01-90e6-d701748f0851");
+    private static final String PNG_KEY = USER_ID + "/profilePic.png";
+    private static final String JPG_KEY = USER_ID + "/profilePic.jpg";
+    private static final List<String> JPG_VARIANTS = List.of(USER_ID + "/profilePic_64.jpg");
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserMapper userMapper;
+
+    @Mock
+    private S3Service s3Service;
+
+    @Mock
+    private S3PresignService s3PresignService;
+
+    @Mock
+    private ImageVariantService imageVariantService;
+
+    @Spy
+    private RequestUserContext requestUserContext = new RequestUserContext();
+
+    @InjectMocks
+    private UserServiceImpl userService;
+
+    @BeforeEach
+    void bindRequest() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @AfterEach
+    void unbindRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    private UserEntity userWithPendingUpload(String pendingKey) {
+        UserEntity user = UserEntity.builder()
+                .id(USER_ID)
+                .email(EMAIL)
+                .verified(true)
+                .pendingS3ObjectKey(pendingKey)
+                .build();
+        user.setAccount_created(Instant.now());
+        user.setAccount_updated(Instant.now());
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user));
+        return user;
+    }
+
+    @Test
+    void upload_RecordsItsKeyBeforeWritingAndClearsItOnSave() {
+        UserEntity user = userWithPendingUpload(null);
+        when(userRepository.reservePictureKey(USER_ID, PNG_KEY, null)).thenReturn(1);
+        when(userRepository.recordPicture(eq(USER_ID), eq(PNG_KEY), any(), any(), any())).thenReturn(1);
+
+        userService.uploadProfilePicture(EMAIL, new MockMultipartFile("profilePic", "me.png", "image/png", new byte[]{1}));
+
+        InOrder order = inOrder(userRepository, s3Service);
+        order.verify(userRepository).reservePictureKey(USER_ID, PNG_KEY, null);
+        order.verify(s3Service).uploadImage(any(), any(), any());
+        order.verify(userRepository).recordPicture(eq(USER_ID), eq(PNG_KEY), any(), any(), any());
+        assertNull(user.getPendingS3ObjectKey());
+    }
+
+    @Test
+    void abandonedUploadUnderAnotherExtension_IsReclaimedWithItsVariants() {
+        userWithPendingUpload(JPG_KEY);
+        when(imageVariantService.variantKeys(JPG_KEY)).thenReturn(JPG_VARIANTS);
+        when(s3Service.reclaimOrphan(JPG_KEY, JPG_VARIANTS)).thenReturn(true);
+        when(userRepository.reservePictureKey(USER_ID, PNG_KEY, JPG_KEY)).thenReturn(1);
+        when(userRepository.recordPicture(eq(USER_ID), eq(PNG_KEY), any(), any(), any())).thenReturn(1);
+
+        userService.uploadProfilePicture(EMAIL, new MockMultipartFile("profilePic", "me.png", "image/png", new byte[]{1}));
+
+        verify(s3Service).reclaimOrphan(JPG_KEY, JPG_VARIANTS);
+        verify(userRepository).reservePictureKey(USER_ID, PNG_KEY, JPG_KEY);
+    }
+
+    @Test
+    void uploadStillInProgressUnderAnotherExtension_IsAnExistingPicture() {
+        userWithPendingUpload(JPG_KEY);
+        when(s3Service.reclaimOrphan(anyString(), any())).thenReturn(false);
+
+        assertThrows(FieldAlreadyExistsException.class, () -> userService.uploadProfilePicture(EMAIL,
+                new MockMultipartFile("profilePic", "me.png", "image/png", new byte[]{1})));
+
+        verify(s3Service, never()).uploadImage(any(), any(), any());
+        verify(userRepository, never()).reservePictureKey(any(), any(), any());
+    }
+
+    @Test
+    void reservationTakenSinceTheRowWasRead_IsAnExistingPicture() {
+        userWithPendingUpload(null);
+
+        assertThrows(FieldAlreadyExistsException.class, () -> userService.uploadProfilePicture(EMAIL,
+                new MockMultipartFile("profilePic", "me.png", "image/png", new byte[]{1})));
+
+        verify(s3Service, never()).uploadImage(any(), any(), any());
+    }
+
+    @Test
+    void reservationLostBeforeTheRecord_TakesTheUploadBackOut() {
+        userWithPendingUpload(null);
+        when(userRepository.reservePictureKey(USER_ID, PNG_KEY, null)).thenReturn(1);
+
+        assertThrows(FieldAlreadyExistsException.class, () -> userService.uploadProfilePicture(EMAIL,
+                new MockMultipartFile("profilePic", "me.png", "image/png", new byte[]{1})));
+
+        verify(s3Service).deleteImage(PNG_KEY);
+    }
+
+    @Test
+    void upload_TakesTheKeyFromTheLastExtension() {
+        userWithPendingUpload(null);
+        when(userRepository.reservePictureKey(USER_ID, PNG_KEY, null)).thenReturn(1);
+        when(userRepository.recordPicture(eq(USER_ID), eq(PNG_KEY), any(), any(), any())).thenReturn(1);
+
+        userService.uploadProfilePicture(EMAIL,
+                new MockMultipartFile("profilePic", "my.holiday.PNG", "image/png", new byte[]{1}));
+
+        verify(s3Service).uploadImage(eq(PNG_KEY), any(), any());
+    }
+
+    @Test
+    void upload_WithAnUnsupportedExtension_IsRejectedBeforeReserving() {
+        userWithPendingUpload(null);
+
+        assertThrows(IllegalArgumentException.class, () -> userService.uploadProfilePicture(EMAIL,
+                new MockMultipartFile("profilePic", "me.gif", "image/gif", new byte[]{1})));
+
+        verify(userRepository, never()).reservePictureKey(any(), any(), any());
+        verify(s3Service, never()).uploadImage(any(), any(), any());
+    }
+
+    @Test
+    void complete_WithAnotherUsersKey_IsRejected() {
+        userWithPendingUpload(PNG_KEY);
+
+        assertThrows(IllegalArgumentException.class, () -> userService.completeProfilePictureUpload(EMAIL,
+                new PresignedUploadCompleteDTO(UUID.randomUUID() + "/profilePic.png")));
+
+        verify(s3Service, never()).findImage(anyString());
+        verify(userRepository, never()).recordPicture(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void complete_WhenNothingWasUploaded_IsNotFound() {
+        userWithPendingUpload(PNG_KEY);
+        when(s3Service.findImage(PNG_KEY)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> userService.completeProfilePictureUpload(EMAIL,
+                new PresignedUploadCompleteDTO(PNG_KEY)));
+
+        verify(userRepository, never()).recordPicture(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void complete_WithAnOversizeObject_DeletesItAndIsTooLarge() {
+        userWithPendingUpload(PNG_KEY);
+        when(s3Service.findImage(PNG_KEY)).thenReturn(Optional.of(headObject(11)));
+        when(s3PresignService.getMaxUploadBytes()).thenReturn(10L);
+
+        assertThrows(PayloadTooLargeException.class, () -> userService.completeProfilePictureUpload(EMAIL,
+                new PresignedUploadCompleteDTO(PNG_KEY)));
+
+        verify(s3Service).deleteImage(PNG_KEY);
+        verify(userRepository, never()).recordPicture(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void complete_RetriedForTheRecordedKey_IsAnsweredAgain() {
+        UserEntity user = userWithPendingUpload(null);
+        user.setS3ObjectKey(PNG_KEY);
+        when(s3Service.findImage(PNG_KEY)).thenReturn(Optional.of(headObject(3)));
+        when(s3PresignService.getMaxUploadBytes()).thenReturn(10L);
+
+        UserImageResponseDTO response = userService.completeProfilePictureUpload(EMAIL,
+                new PresignedUploadCompleteDTO(PNG_KEY));
+
+        assertEquals(USER_ID.toString(), response.getUserId());
+        assertEquals(PNG_KEY, response.getFileName());
+        verify(userRepository, never()).recordPicture(any(), any(), any(), any(), any());
+        verify(s3Service, never()).deleteImage(anyString());
+    }
+
+    @Test
+    void uploadUrl_ReclaimsAnAttemptThatWasNeverCompleted() {
+        userWithPendingUpload(PNG_KEY);
+        when(userRepository.reservePictureKey(USER_ID, PNG_KEY, PNG_KEY)).thenReturn(1);
+        when(s3Service.reclaimOrphan(anyString(), any())).thenReturn(true);
+        when(s3PresignService.presignUpload(PNG_KEY, "image/png", 3)).thenReturn(presignedPut());
+
+        userService.createProfilePictureUploadUrl(EMAIL, new PresignedUploadRequestDTO("me.png", "image/png", 3L));
+
+        InOrder order = inOrder(s3Service, s3PresignService);
+        order.verify(s3Service).reclaimOrphan(anyString(), any());
+        order.verify(s3PresignService).presignUpload(PNG_KEY, "image/png", 3);
+    }
+
+    @Test
+    void uploadUrl_WhileAnAttemptIsWithinTheGracePeriod_IsAnExistingPicture() {
+        userWithPendingUpload(PNG_KEY);
+        when(userRepository.reservePictureKey(USER_ID, PNG_KEY, PNG_KEY)).thenReturn(1);
+        when(s3Service.reclaimOrphan(anyString(), any())).thenReturn(false);
+
+        assertThrows(FieldAlreadyExistsException.class, () -> userService.createProfilePictureUploadUrl(EMAIL,
+                new PresignedUploadRequestDTO("me.png", "image/png", 3L)));
+
+        verify(s3PresignService, never()).presignUpload(anyString(), anyString(), anyLong());
+    }
+
+    private static HeadObjectResponse headObject(long contentLength) {
+        return HeadObjectResponse.builder().contentLength(contentLength).lastModified(Instant.now()).build();
+    }
+
+    private static PresignedPutObjectRequest presignedPut() {
+        return PresignedPutObjectRequest.builder()
+                .expiration(Instant.now().plusSeconds(300))
+                .isBrowserExecutable(false)
+                .signedHeaders(Map.of("host", List.of("bucket.s3.us-east-1.amazonaws.com")))
+                .httpRequest(SdkHttpFullRequest.builder()
+                        .method(SdkHttpMethod.PUT)
+                        .protocol("https")
+                        .host("bucket.s3.us-east-1.amazonaws.com")
+                        .encodedPath("/" + PNG_KEY)
+                        .build())
+                .build();
+    }
+}
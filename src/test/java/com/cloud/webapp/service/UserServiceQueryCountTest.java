@@ -0,0 +1,180 @@
+package com.cloud.webapp.service;
+
+import com.cloud.webapp.entity.UserEntity;
+import com.cloud.webapp.mapper.UserMapper;
+import com.cloud.webapp.repository.UserRepository;
+import com.cloud.webapp.repository.projection.UserPictureView;
+import com.cloud.webapp.repository.projection.UserProfileView;
+import com.cloud.webapp.security.RequestUserContext;
+import com.cloud.webapp.service.aws.S3PresignService;
+import com.cloud.webapp.service.aws.S3Service;
+import com.cloud.webapp.service.image.ImageDiskCache;
+import com.cloud.webapp.service.image.ImageVariantService;
+import com.cloud.webapp.service.serviceimpl.UserServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class UserServiceQueryCountTest {
+
+    private static final String EMAIL = "jane.doe@example.com";
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserMapper userMapper;
+
+    @Mock
+    private S3Service s3Service;
+
+    @Mock
+    private S3PresignService s3PresignService;
+
+    @Mock
+    private ImageVariantService imageVariantService;
+
+    @Spy
+    private RequestUserContext requestUserContext = new RequestUserContext();
+
+    @InjectMocks
+    private UserServiceImpl userService;
+
+    @BeforeEach
+    void bindRequest() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @AfterEach
+    void unbindRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    private UserEntity verifiedUser() {
+        UserEntity user = UserEntity.builder()
+                .id(UUID.fromString("d290f1ee-6c54-4b01-90e6-d701748f0851"))
+                .email(EMAIL)
+                .verified(true)
+                .s3ObjectKey("d290f1ee-6c54-4b01-90e6-d701748f0851/profilePic.png")
+                .imageUrl("https://bucket.s3.us-east-1.amazonaws.com/d290f1ee-6c54-4b01-90e6-d701748f0851/profilePic.png")
+                .build();
+        user.setAccount_created(Instant.now());
+        user.setAccount_updated(Instant.now());
+        return user;
+    }
+
+    @Test
+    void getUserByEmail_RunsOneUserQuery() {
+        when(userRepository.findProfileByEmail(EMAIL)).thenReturn(Optional.of(UserProfileView.from(verifiedUser())));
+
+        userService.getUserByEmail(EMAIL);
+
+        verify(userRepository, times(1)).findProfileByEmail(anyString());
+        verify(userRepository, never()).findByEmail(anyString());
+    }
+
+    @Test
+    void getProfilePicture_RunsOneUserQuery() {
+        when(userRepository.findPictureByEmail(EMAIL)).thenReturn(Optional.of(UserPictureView.from(verifiedUser())));
+
+        userService.getProfilePicture(EMAIL);
+
+        verify(userRepository, times(1)).findPictureByEmail(anyString());
+        verify(userRepository, never()).findByEmail(anyString());
+    }
+
+    @Test
+    void uploadProfilePicture_RunsOneUserQuery() {
+        UserEntity user = verifiedUser();
+        user.setS3ObjectKey(null);
+        user.setImageUrl(null);
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user));
+        MockMultipartFile file = new MockMultipartFile("profilePic", "me.png", "image/png", new byte[]{1, 2, 3});
+        when(userRepository.reservePictureKey(any(), any(), any())).thenReturn(1);
+        when(userRepository.recordPicture(any(), any(), any(), any(), any())).thenReturn(1);
+
+        userService.uploadProfilePicture(EMAIL, file);
+
+        verify(userRepository, times(1)).findByEmail(anyString());
+        verify(userRepository, times(1)).recordPicture(any(), any(), any(), any(), any());
+        verify(userRepository, never()).save(any(UserEntity.class));
+    }
+
+    @Test
+    void deleteProfilePicture_RunsOneUserQuery() {
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(verifiedUser()));
+
+        userService.deleteProfilePicture(EMAIL);
+
+        verify(userRepository, times(1)).findByEmail(anyString());
+    }
+
+    @Test
+    void getProfileETag_RunsVersionOnlyQuery() {
+        Instant updated = Instant.parse("2026-10-18T10:15:30.123Z");
+        when(userRepository.findVersionByEmail(EMAIL)).thenReturn(Optional.of(updated));
+
+        assertEquals(Optional.of("\"user-" + updated.toEpochMilli() + "\""), userService.getProfileETag(EMAIL));
+
+        verify(userRepository, times(1)).findVersionByEmail(anyString());
+        verify(userRepository, never()).findProfileByEmail(anyString());
+    }
+
+    @Test
+    void getProfileETag_ReusesUserLoadedByAuthentication() {
+        UserEntity user = verifiedUser();
+        requestUserContext.set(user);
+
+        assertEquals(Optional.of("\"user-" + user.getAccount_updated().toEpochMilli() + "\""),
+                userService.getProfileETag(EMAIL));
+
+        verify(userRepository, never()).findVersionByEmail(anyString());
+    }
+
+    @Test
+    void getProfilePictureContentETag_NeedsNoDownload() {
+        UserEntity user = verifiedUser();
+        user.setImageVariants("64,256");
+        requestUserContext.set(user);
+
+        assertEquals(Optional.of(ImageDiskCache.etag("d290f1ee-6c54-4b01-90e6-d701748f0851/profilePic_64.png",
+                        String.valueOf(user.getAccount_updated().toEpochMilli()))),
+                userService.getProfilePictureContentETag(EMAIL, 64));
+        assertEquals(Optional.empty(), userService.getProfilePictureContentETag(EMAIL, 128));
+
+        verify(userRepository, never()).findPictureByEmail(anyString());
+        verify(s3Service, never()).openImage(anyString());
+    }
+
+    @Test
+    void getUserByEmail_ReusesUserLoadedByAuthentication() {
+        requestUserContext.set(verifiedUser());
+
+        userService.getUserByEmail(EMAIL);
+
+        verify(userRepository, never()).findByEmail(anyString());
+        verify(userRepository, never()).findProfileByEmail(anyString());
+    }
+}
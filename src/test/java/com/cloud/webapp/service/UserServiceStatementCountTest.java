@@ -0,0 +1,192 @@
+package com.cloud.webapp.service;
+
+import com.cloud.webapp.DTO.UserRequestDTO;
+import com.cloud.webapp.entity.UserEntity;
+import com.cloud.webapp.mapper.UserMapper;
+import com.cloud.webapp.repository.UserRepository;
+import com.cloud.webapp.security.CredentialCache;
+import com.cloud.webapp.security.RequestUserContext;
+import com.cloud.webapp.service.aws.S3PresignService;
+import com.cloud.webapp.service.aws.S3Service;
+import com.cloud.webapp.service.aws.SNSService;
+import com.cloud.webapp.service.image.ImageDiskCache;
+import com.cloud.webapp.service.image.ImageVariantService;
+import com.cloud.webapp.service.serviceimpl.UserServiceImpl;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Counts the statements the write endpoints really run against an embedded database. Authentication loads the row
+ * before the service sees it, detached; the service must not read it again.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+// Like a request: no transaction spans authentication and the service call
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserServiceStatementCountTest {
+
+    private static final String EMAIL = "jane.doe@example.com";
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @MockBean
+    private PasswordHashingService passwordHashingService;
+    @MockBean
+    private UserMapper userMapper;
+    @MockBean
+    private ModelMapper modelMapper;
+    @MockBean
+    private S3Service s3Service;
+    @MockBean
+    private S3PresignService s3PresignService;
+    @MockBean
+    private ImageVariantService imageVariantService;
+    @MockBean
+    private ImageDiskCache imageDiskCache;
+    @MockBean
+    private SNSService snsService;
+    @MockBean
+    private CredentialCache credentialCache;
+    @MockBean
+    private TaskExecutor taskExecutor;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RequestUserContext requestUserContext;
+
+    @Autowired
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        userRepository.save(UserEntity.builder()
+                .first_name("Jane")
+                .last_name("Doe")
+                .email(EMAIL)
+                .password("hash")
+                .verified(true)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void updateUserDetails_ReadsTheUserOnce() {
+        authenticate();
+
+        userService.updateUserDetails(UserRequestDTO.builder().first_name("Janet").build(), EMAIL);
+
+        assertEquals(1, count("select"));
+        assertEquals(1, count("update"));
+        assertEquals("Janet", userRepository.findByEmail(EMAIL).orElseThrow().getFirst_name());
+    }
+
+    @Test
+    void uploadProfilePicture_ReadsTheUserOnce() {
+        authenticate();
+
+        userService.uploadProfilePicture(EMAIL, new MockMultipartFile("profilePic", "me.png", "image/png", new byte[]{1}));
+
+        assertEquals(1, count("select"));
+        // The pending key, then the picture itself
+        assertEquals(2, count("update"));
+        UserEntity stored = userRepository.findByEmail(EMAIL).orElseThrow();
+        assertEquals(stored.getId() + "/profilePic.png", stored.getS3ObjectKey());
+        assertNull(stored.getPendingS3ObjectKey());
+    }
+
+    @Test
+    void deleteProfilePicture_ReadsTheUserOnce() {
+        UserEntity user = userRepository.findByEmail(EMAIL).orElseThrow();
+        userRepository.updatePicture(user.getId(), user.getId() + "/profilePic.png", "url", null, Instant.now());
+        authenticate();
+
+        userService.deleteProfilePicture(EMAIL);
+
+        assertEquals(1, count("select"));
+        assertEquals(1, count("update"));
+        assertNull(userRepository.findByEmail(EMAIL).orElseThrow().getS3ObjectKey());
+    }
+
+    // What the authentication layer does for every request; the statements before it are setup
+    private void authenticate() {
+        STATEMENTS.clear();
+        requestUserContext.set(userRepository.findByEmail(EMAIL).orElseThrow());
+    }
+
+    private static long count(String verb) {
+        return STATEMENTS.stream()
+                .filter(sql -> sql.stripLeading().toLowerCase(Locale.ROOT).startsWith(verb))
+                .count();
+    }
+
+    @SpringBootConfiguration
+    @EnableJpaRepositories(basePackageClasses = UserRepository.class)
+    @EntityScan(basePackageClasses = UserEntity.class)
+    @Import({UserServiceImpl.class, RequestUserContext.class})
+    static class Config {
+
+        @Bean
+        static BeanPostProcessor statementRecordingPostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource) {
+                        return bean;
+                    }
+                    return ProxyDataSourceBuilder.create(dataSource).listener(new QueryExecutionListener() {
+                        @Override
+                        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                        }
+
+                        @Override
+                        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                            queryInfoList.forEach(queryInfo -> STATEMENTS.add(queryInfo.getQuery()));
+                        }
+                    }).build();
+                }
+            };
+        }
+    }
+}
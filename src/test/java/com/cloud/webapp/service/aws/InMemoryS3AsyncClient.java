@@ -0,0 +1,101 @@
+package com.cloud.webapp.service.aws;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+// Async view of an InMemoryS3Client: bodies are drained from their publishers and every call completes off the caller's thread
+class InMemoryS3AsyncClient implements S3AsyncClient {
+
+    private final InMemoryS3Client delegate;
+
+    InMemoryS3AsyncClient(InMemoryS3Client delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public CompletableFuture<PutObjectResponse> putObject(PutObjectRequest request, AsyncRequestBody body) {
+        return read(body).thenCompose(content -> call(() -> delegate.putObject(request, RequestBody.fromBytes(content))));
+    }
+
+    @Override
+    public CompletableFuture<CreateMultipartUploadResponse> createMultipartUpload(CreateMultipartUploadRequest request) {
+        return call(() -> delegate.createMultipartUpload(request));
+    }
+
+    @Override
+    public CompletableFuture<UploadPartResponse> uploadPart(UploadPartRequest request, AsyncRequestBody body) {
+        return read(body).thenCompose(content -> call(() -> delegate.uploadPart(request, RequestBody.fromBytes(content))));
+    }
+
+    @Override
+    public CompletableFuture<CompleteMultipartUploadResponse> completeMultipartUpload(CompleteMultipartUploadRequest request) {
+        return call(() -> delegate.completeMultipartUpload(request));
+    }
+
+    @Override
+    public CompletableFuture<AbortMultipartUploadResponse> abortMultipartUpload(AbortMultipartUploadRequest request) {
+        return call(() -> delegate.abortMultipartUpload(request));
+    }
+
+    @Override
+    public CompletableFuture<HeadObjectResponse> headObject(HeadObjectRequest request) {
+        return call(() -> delegate.headObject(request));
+    }
+
+    @Override
+    public CompletableFuture<DeleteObjectResponse> deleteObject(DeleteObjectRequest request) {
+        return call(() -> delegate.deleteObject(request));
+    }
+
+    @Override
+    public String serviceName() {
+        return "s3";
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private static <T> CompletableFuture<T> call(Supplier<T> operation) {
+        return CompletableFuture.supplyAsync(operation);
+    }
+
+    private static CompletableFuture<byte[]> read(AsyncRequestBody body) {
+        CompletableFuture<byte[]> content = new CompletableFuture<>();
+        body.subscribe(new Subscriber<ByteBuffer>() {
+            private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+            @Override
+            public void onSubscribe(Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ByteBuffer chunk) {
+                byte[] bytes = new byte[chunk.remaining()];
+                chunk.get(bytes);
+                buffer.writeBytes(bytes);
+            }
+
+            @Override
+            public void onError(Throwable failure) {
+                content.completeExceptionally(failure);
+            }
+
+            @Override
+            public void onComplete() {
+                content.complete(buffer.toByteArray());
+            }
+        });
+        return content;
+    }
+}
@@ -0,0 +1,126 @@
+package com.cloud.webapp.service.aws;
+
+import software.amazon.awssdk.awscore.AwsRequestOverrideConfiguration;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// S3-compatible stand-in for the operations S3Service uses; keeps objects and multipart uploads in memory
+class InMemoryS3Client implements S3Client {
+
+    final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+    final Map<String, Instant> lastModified = new ConcurrentHashMap<>();
+    final Map<String, Map<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+    final Set<String> aborted = ConcurrentHashMap.newKeySet();
+    final AtomicInteger putCalls = new AtomicInteger();
+    volatile int failPartNumber = -1;
+
+    @Override
+    public PutObjectResponse putObject(PutObjectRequest request, RequestBody body) {
+        putCalls.incrementAndGet();
+        byte[] content = read(body);
+        checkIfNoneMatch(request.key(), request.overrideConfiguration());
+        store(request.key(), content);
+        return PutObjectResponse.builder().eTag(UUID.randomUUID().toString()).build();
+    }
+
+    @Override
+    public CreateMultipartUploadResponse createMultipartUpload(CreateMultipartUploadRequest request) {
+        String uploadId = UUID.randomUUID().toString();
+        uploads.put(uploadId, new ConcurrentSkipListMap<>());
+        return CreateMultipartUploadResponse.builder().uploadId(uploadId).key(request.key()).build();
+    }
+
+    @Override
+    public UploadPartResponse uploadPart(UploadPartRequest request, RequestBody body) {
+        if (request.partNumber() == failPartNumber) {
+            throw S3Exception.builder().message("Injected failure for part " + failPartNumber).statusCode(500).build();
+        }
+        uploads.get(request.uploadId()).put(request.partNumber(), read(body));
+        return UploadPartResponse.builder().eTag("etag-" + request.partNumber()).build();
+    }
+
+    @Override
+    public CompleteMultipartUploadResponse completeMultipartUpload(CompleteMultipartUploadRequest request) {
+        Map<Integer, byte[]> parts = uploads.remove(request.uploadId());
+        ByteArrayOutputStream object = new ByteArrayOutputStream();
+        for (CompletedPart part : request.multipartUpload().parts()) {
+            object.writeBytes(parts.get(part.partNumber()));
+        }
+        checkIfNoneMatch(request.key(), request.overrideConfiguration());
+        store(request.key(), object.toByteArray());
+        return CompleteMultipartUploadResponse.builder().key(request.key()).build();
+    }
+
+    @Override
+    public AbortMultipartUploadResponse abortMultipartUpload(AbortMultipartUploadRequest request) {
+        uploads.remove(request.uploadId());
+        aborted.add(request.uploadId());
+        return AbortMultipartUploadResponse.builder().build();
+    }
+
+    @Override
+    public HeadObjectResponse headObject(HeadObjectRequest request) {
+        if (!objects.containsKey(request.key())) {
+            throw NoSuchKeyException.builder().statusCode(404).build();
+        }
+        return HeadObjectResponse.builder()
+                .contentLength((long) objects.get(request.key()).length)
+                .lastModified(lastModified.get(request.key()))
+                .build();
+    }
+
+    @Override
+    public DeleteObjectResponse deleteObject(DeleteObjectRequest request) {
+        objects.remove(request.key());
+        lastModified.remove(request.key());
+        return DeleteObjectResponse.builder().build();
+    }
+
+    @Override
+    public String serviceName() {
+        return "s3";
+    }
+
+    @Override
+    public void close() {
+    }
+
+    void store(String key, byte[] content) {
+        objects.put(key, content);
+        lastModified.put(key, Instant.now());
+    }
+
+    // Honours If-None-Match: * the way S3 does, with 412 Precondition Failed
+    private void checkIfNoneMatch(String key, Optional<AwsRequestOverrideConfiguration> override) {
+        boolean conditional = override
+                .map(config -> config.headers().getOrDefault("If-None-Match", List.of()).contains("*"))
+                .orElse(false);
+        if (conditional && objects.containsKey(key)) {
+            throw S3Exception.builder().message("At least one of the pre-conditions you specified did not hold")
+                    .statusCode(412).build();
+        }
+    }
+
+    private static byte[] read(RequestBody body) {
+        try (InputStream in = body.contentStreamProvider().newStream()) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
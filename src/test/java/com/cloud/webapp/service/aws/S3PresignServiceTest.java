@@ -0,0 +1,62 @@
+package com.cloud.webapp.service.aws;
+
+import com.cloud.webapp.exceptions.Types.PayloadTooLargeException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class S3PresignServiceTest {
+
+    private static final String KEY = "d290f1ee-6c54-4b01-90e6-d701748f0851/profilePic.png";
+
+    private final S3Presigner presigner = S3Presigner.builder()
+            .region(Region.US_EAST_1)
+            .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("access", "secret")))
+            .build();
+    private final S3PresignService presignService = new S3PresignService(presigner, "bucket", 10_240, 300, 900);
+
+    @AfterEach
+    void tearDown() {
+        presigner.close();
+    }
+
+    @Test
+    void uploadUrl_IsBoundToKeyTypeLengthAndNoOverwrite() {
+        PresignedPutObjectRequest presigned = presignService.presignUpload(KEY, "image/png", 2048);
+        Map<String, List<String>> signedHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        signedHeaders.putAll(presigned.signedHeaders());
+
+        assertTrue(presigned.url().getPath().endsWith("/" + KEY));
+        assertEquals("PUT", presigned.httpRequest().method().name());
+        assertEquals("image/png", signedHeaders.get("content-type").get(0));
+        assertEquals("*", signedHeaders.get("if-none-match").get(0));
+        assertTrue(presigned.expiration().isBefore(Instant.now().plus(Duration.ofSeconds(301))));
+    }
+
+    @Test
+    void uploadUrl_OverSizeLimit_IsRefused() {
+        assertThrows(PayloadTooLargeException.class, () -> presignService.presignUpload(KEY, "image/png", 10_241));
+    }
+
+    @Test
+    void downloadUrl_ExpiresAfterConfiguredTtl() {
+        String url = presignService.presignDownload(KEY);
+
+        assertTrue(url.contains(KEY));
+        assertTrue(url.contains("X-Amz-Expires=900"));
+    }
+}
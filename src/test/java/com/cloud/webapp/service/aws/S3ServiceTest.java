@@ -0,0 +1,232 @@
+package com.cloud.webapp.service.aws;
+
+import com.cloud.webapp.exceptions.Types.FieldAlreadyExistsException;
+import com.cloud.webapp.exceptions.Types.PayloadTooLargeException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class S3ServiceTest {
+
+    private static final String KEY = "d290f1ee-6c54-4b01-90e6-d701748f0851/profilePic.png";
+    private static final List<String> VARIANT_KEYS = List.of(
+            "d290f1ee-6c54-4b01-90e6-d701748f0851/profilePic_64.png",
+            "d290f1ee-6c54-4b01-90e6-d701748f0851/profilePic_256.png");
+
+    private final InMemoryS3Client s3 = new InMemoryS3Client();
+    // 10 KB max, multipart from 4 KB in 1 KB parts with at most 2 in flight
+    private final S3Service s3Service = new S3Service(s3, null, false, "us-east-1", "bucket", 10_240, 4096, 1024, 2, 4, 300);
+
+    private final List<S3Service> otherServices = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        s3Service.shutdown();
+        otherServices.forEach(S3Service::shutdown);
+    }
+
+    @Test
+    void smallImage_IsStreamedWithSinglePut() {
+        byte[] image = randomBytes(3000);
+
+        s3Service.uploadImage(KEY, new MockMultipartFile("profilePic", "pic.png", "image/png", image), List.of());
+
+        assertEquals(1, s3.putCalls.get());
+        assertArrayEquals(image, s3.objects.get(KEY));
+    }
+
+    @Test
+    void largeImage_IsUploadedInPartsAndReassembled() {
+        byte[] image = randomBytes(9500);
+
+        s3Service.uploadImage(KEY, new MockMultipartFile("profilePic", "pic.png", "image/png", image), List.of());
+
+        assertEquals(0, s3.putCalls.get());
+        assertArrayEquals(image, s3.objects.get(KEY));
+        assertTrue(s3.uploads.isEmpty());
+    }
+
+    @Test
+    void failedPart_AbortsTheMultipartUpload() {
+        s3.failPartNumber = 3;
+
+        assertThrows(S3Exception.class, () -> s3Service.uploadImage(KEY,
+                new MockMultipartFile("profilePic", "pic.png", "image/png", randomBytes(8000)), List.of()));
+
+        assertFalse(s3.objects.containsKey(KEY));
+        assertEquals(1, s3.aborted.size());
+    }
+
+    @Test
+    void imageOverMaximum_IsRejectedBeforeAnyS3Call() {
+        assertThrows(PayloadTooLargeException.class, () -> s3Service.uploadImage(KEY,
+                new MockMultipartFile("profilePic", "pic.png", "image/png", randomBytes(10_241)), List.of()));
+
+        assertEquals(0, s3.putCalls.get());
+        assertTrue(s3.objects.isEmpty());
+    }
+
+    @Test
+    void existingObject_IsRejectedByTheConditionalPut() {
+        byte[] existing = randomBytes(100);
+        s3.store(KEY, existing);
+
+        assertThrows(FieldAlreadyExistsException.class, () -> s3Service.uploadImage(KEY,
+                new MockMultipartFile("profilePic", "pic.png", "image/png", randomBytes(3000)), List.of()));
+
+        assertArrayEquals(existing, s3.objects.get(KEY));
+    }
+
+    @Test
+    void orphanOlderThanGracePeriod_IsReplaced() {
+        s3.store(KEY, randomBytes(100));
+        s3.lastModified.put(KEY, Instant.now().minus(Duration.ofHours(1)));
+        byte[] image = randomBytes(9500);
+
+        s3Service.uploadImage(KEY, new MockMultipartFile("profilePic", "pic.png", "image/png", image), List.of());
+
+        assertArrayEquals(image, s3.objects.get(KEY));
+    }
+
+    @Test
+    void reclaimedOrphan_TakesItsVariantsWithIt() {
+        storeOrphan(s3, KEY);
+        VARIANT_KEYS.forEach(key -> storeOrphan(s3, key));
+
+        s3Service.uploadImage(KEY, new MockMultipartFile("profilePic", "pic.png", "image/png", randomBytes(3000)),
+                VARIANT_KEYS);
+
+        VARIANT_KEYS.forEach(key -> assertFalse(s3.objects.containsKey(key)));
+    }
+
+    @Test
+    void orphanWithinGracePeriod_IsKept() {
+        s3.store(KEY, randomBytes(100));
+        VARIANT_KEYS.forEach(key -> s3.store(key, randomBytes(50)));
+
+        assertFalse(s3Service.reclaimOrphan(KEY, VARIANT_KEYS));
+
+        assertTrue(s3.objects.keySet().containsAll(VARIANT_KEYS));
+        assertTrue(s3.objects.containsKey(KEY));
+    }
+
+    @Test
+    void keyTakenAgainAfterTheReclaim_IsAnExistingPicture() {
+        InMemoryS3Client racing = new RetakingS3Client();
+        S3Service service = new S3Service(racing, null, false, "us-east-1", "bucket", 10_240, 4096, 1024, 2, 4, 300);
+        otherServices.add(service);
+        storeOrphan(racing, KEY);
+
+        assertThrows(FieldAlreadyExistsException.class, () -> service.uploadImage(KEY,
+                new MockMultipartFile("profilePic", "pic.png", "image/png", randomBytes(3000)), List.of()));
+    }
+
+    @Test
+    void keyTakenAgainAfterTheReclaim_IsAnExistingPictureOnTheAsyncPath() {
+        InMemoryS3Client racing = new RetakingS3Client();
+        S3Service service = new S3Service(racing, new InMemoryS3AsyncClient(racing), true, "us-east-1", "bucket",
+                10_240, 4096, 1024, 2, 4, 300);
+        otherServices.add(service);
+        storeOrphan(racing, KEY);
+
+        CompletionException failure = assertThrows(CompletionException.class, () -> service.uploadImageAsync(KEY,
+                new MockMultipartFile("profilePic", "pic.png", "image/png", randomBytes(3000)), List.of()).join());
+
+        assertInstanceOf(FieldAlreadyExistsException.class, failure.getCause());
+    }
+
+    @Test
+    void reclaimedOrphan_TakesItsVariantsWithItOnTheAsyncPath() {
+        S3Service asyncService = asyncService();
+        storeOrphan(s3, KEY);
+        VARIANT_KEYS.forEach(key -> storeOrphan(s3, key));
+        byte[] image = randomBytes(3000);
+
+        asyncService.uploadImageAsync(KEY, new MockMultipartFile("profilePic", "pic.png", "image/png", image),
+                VARIANT_KEYS).join();
+
+        assertArrayEquals(image, s3.objects.get(KEY));
+        VARIANT_KEYS.forEach(key -> assertFalse(s3.objects.containsKey(key)));
+    }
+
+    @Test
+    void largeImage_IsUploadedInPartsOnTheAsyncPath() {
+        S3Service asyncService = asyncService();
+        byte[] image = randomBytes(9500);
+
+        asyncService.uploadImageAsync(KEY, new MockMultipartFile("profilePic", "pic.png", "image/png", image), List.of()).join();
+
+        assertEquals(0, s3.putCalls.get());
+        assertArrayEquals(image, s3.objects.get(KEY));
+        assertTrue(s3.uploads.isEmpty());
+    }
+
+    @Test
+    void smallImage_IsStreamedWithSinglePutOnTheAsyncPath() {
+        S3Service asyncService = asyncService();
+        byte[] image = randomBytes(3000);
+
+        asyncService.uploadImageAsync(KEY, new MockMultipartFile("profilePic", "pic.png", "image/png", image), List.of()).join();
+
+        assertEquals(1, s3.putCalls.get());
+        assertArrayEquals(image, s3.objects.get(KEY));
+    }
+
+    @Test
+    void failedPart_AbortsTheMultipartUploadOnTheAsyncPath() {
+        S3Service asyncService = asyncService();
+        s3.failPartNumber = 3;
+
+        CompletionException failure = assertThrows(CompletionException.class, () -> asyncService.uploadImageAsync(KEY,
+                new MockMultipartFile("profilePic", "pic.png", "image/png", randomBytes(8000)), List.of()).join());
+
+        assertInstanceOf(S3Exception.class, failure.getCause());
+        assertFalse(s3.objects.containsKey(KEY));
+        assertEquals(1, s3.aborted.size());
+    }
+
+    private S3Service asyncService() {
+        S3Service asyncService = new S3Service(s3, new InMemoryS3AsyncClient(s3), true, "us-east-1", "bucket",
+                10_240, 4096, 1024, 2, 4, 300);
+        otherServices.add(asyncService);
+        return asyncService;
+    }
+
+    private static void storeOrphan(InMemoryS3Client client, String key) {
+        client.store(key, randomBytes(100));
+        client.lastModified.put(key, Instant.now().minus(Duration.ofHours(1)));
+    }
+
+    // Another upload writes the key again as soon as the orphan there is deleted
+    private static class RetakingS3Client extends InMemoryS3Client {
+        @Override
+        public DeleteObjectResponse deleteObject(DeleteObjectRequest request) {
+            DeleteObjectResponse response = super.deleteObject(request);
+            store(request.key(), randomBytes(100));
+            return response;
+        }
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+}
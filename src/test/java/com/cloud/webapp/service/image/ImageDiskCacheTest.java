@@ -0,0 +1,110 @@
+package com.cloud.webapp.service.image;
+
+import com.cloud.webapp.exceptions.Types.ResourceNotFoundException;
+import com.cloud.webapp.service.aws.S3Service;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ImageDiskCacheTest {
+
+    private static final String KEY = "d290f1ee-6c54-4b01-90e6-d701748f0851/profilePic.png";
+    private static final byte[] PICTURE = {1, 2, 3, 4, 5, 6, 7, 8};
+
+    @TempDir
+    Path directory;
+
+    private final S3Service s3Service = mock(S3Service.class);
+    private ImageDiskCache cache;
+
+    @AfterEach
+    void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    void repeatedReads_DownloadOnce() throws Exception {
+        when(s3Service.openImage(KEY)).thenAnswer(invocation -> object(PICTURE));
+        cache = new ImageDiskCache(s3Service, directory.toString(), 1024, 2, 0);
+
+        ImageDiskCache.CachedImage first = cache.get(KEY, "1");
+        ImageDiskCache.CachedImage second = cache.get(KEY, "1");
+
+        verify(s3Service, times(1)).openImage(KEY);
+        assertEquals(first, second);
+        assertArrayEquals(PICTURE, Files.readAllBytes(first.file()));
+        assertEquals(ImageDiskCache.etag(KEY, "1"), first.etag());
+        assertEquals("image/png", first.contentType());
+    }
+
+    @Test
+    void newVersion_IsADifferentEntry() throws Exception {
+        when(s3Service.openImage(KEY)).thenAnswer(invocation -> object(PICTURE));
+        cache = new ImageDiskCache(s3Service, directory.toString(), 1024, 2, 0);
+
+        ImageDiskCache.CachedImage before = cache.get(KEY, "1");
+        ImageDiskCache.CachedImage after = cache.get(KEY, "2");
+
+        verify(s3Service, times(2)).openImage(KEY);
+        assertNotEquals(before.file(), after.file());
+        assertNotEquals(before.etag(), after.etag());
+    }
+
+    @Test
+    void startup_RemovesOnlyFilesTheCacheWrites() throws Exception {
+        Path leftover = Files.write(directory.resolve("0b9c2f4e.img"), PICTURE);
+        Path partial = Files.write(directory.resolve("0b9c2f4e.img.part"), PICTURE);
+        Path unrelated = Files.write(directory.resolve("notes.txt"), PICTURE);
+
+        cache = new ImageDiskCache(s3Service, directory.toString(), 1024, 2, 0);
+
+        assertFalse(Files.exists(leftover));
+        assertFalse(Files.exists(partial));
+        assertTrue(Files.exists(unrelated));
+    }
+
+    @Test
+    void deletedFile_IsDownloadedAgain() throws Exception {
+        when(s3Service.openImage(KEY)).thenAnswer(invocation -> object(PICTURE));
+        cache = new ImageDiskCache(s3Service, directory.toString(), 1024, 2, 0);
+
+        Files.delete(cache.get(KEY, "1").file());
+        ImageDiskCache.CachedImage reloaded = cache.get(KEY, "1");
+
+        verify(s3Service, times(2)).openImage(KEY);
+        assertArrayEquals(PICTURE, Files.readAllBytes(reloaded.file()));
+    }
+
+    @Test
+    void missingObject_IsNotFound() throws Exception {
+        when(s3Service.openImage(KEY)).thenThrow(NoSuchKeyException.builder().build());
+        cache = new ImageDiskCache(s3Service, directory.toString(), 1024, 2, 0);
+
+        assertThrows(ResourceNotFoundException.class, () -> cache.get(KEY, "1"));
+    }
+
+    private static ResponseInputStream<GetObjectResponse> object(byte[] content) {
+        return new ResponseInputStream<>(GetObjectResponse.builder().contentType("image/png").build(),
+                AbortableInputStream.create(new ByteArrayInputStream(content)));
+    }
+}
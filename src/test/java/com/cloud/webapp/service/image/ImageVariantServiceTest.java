@@ -0,0 +1,82 @@
+package com.cloud.webapp.service.image;
+
+import com.cloud.webapp.service.aws.S3Service;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.SortedMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class ImageVariantServiceTest {
+
+    private static final String KEY = "d290f1ee-6c54-4b01-90e6-d701748f0851/profilePic.png";
+
+    private final S3Service s3Service = mock(S3Service.class);
+    private final ImageVariantService variantService =
+            new ImageVariantService(s3Service, new int[]{256, 64}, 2, 4, 2, 40_000_000, 0.85f);
+
+    @AfterEach
+    void tearDown() {
+        variantService.shutdown();
+    }
+
+    @Test
+    void createVariants_StoresEachSizeScaledToFit() throws IOException {
+        SortedMap<Integer, String> stored = variantService.createVariants(KEY, png(1200, 800));
+
+        assertEquals(List.of(64, 256), List.copyOf(stored.keySet()));
+        assertEquals("d290f1ee-6c54-4b01-90e6-d701748f0851/profilePic_64.png", stored.get(64));
+
+        ArgumentCaptor<byte[]> content = ArgumentCaptor.forClass(byte[].class);
+        verify(s3Service).putVariant(eq(stored.get(256)), eq("image/png"), content.capture());
+        BufferedImage variant = ImageIO.read(new ByteArrayInputStream(content.getValue()));
+        assertEquals(256, variant.getWidth());
+        assertEquals(171, variant.getHeight());
+    }
+
+    @Test
+    void createVariants_SourceOverPixelLimit_IsNotDecoded() throws IOException {
+        ImageVariantService limited = new ImageVariantService(s3Service, new int[]{64}, 1, 1, 1, 10_000, 0.85f);
+        try {
+            assertTrue(limited.createVariants(KEY, png(200, 200)).isEmpty());
+            verify(s3Service, never()).putVariant(anyString(), anyString(), any());
+        } finally {
+            limited.shutdown();
+        }
+    }
+
+    @Test
+    void variantSizes_RoundTripThroughTheUserColumn() {
+        assertEquals("64,256", ImageVariantService.formatSizes(List.of(64, 256)));
+        assertEquals(List.of("u/profilePic_64.jpg", "u/profilePic_256.jpg"),
+                ImageVariantService.variantKeys("u/profilePic.jpg", "64,256"));
+        assertTrue(ImageVariantService.parseSizes(null).isEmpty());
+    }
+
+    private static ByteArrayInputStream png(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                image.setRGB(x, y, 0xFF000000 | (x % 256) << 16 | (y % 256) << 8);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return new ByteArrayInputStream(out.toByteArray());
+    }
+}
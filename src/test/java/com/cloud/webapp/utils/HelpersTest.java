@@ -0,0 +1,50 @@
+package com.cloud.webapp.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static com.cloud.webapp.utils.helpers.etagMatchesUtil;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HelpersTest {
+
+    private static final String ETAG = "\"user-1700000000000\"";
+
+    @Test
+    void etagMatches_ExactTag() {
+        assertTrue(etagMatchesUtil(ETAG, ETAG));
+        assertFalse(etagMatchesUtil("\"user-1699999999999\"", ETAG));
+    }
+
+    @Test
+    void etagMatches_AnyTagInACommaSeparatedList() {
+        assertTrue(etagMatchesUtil("\"other\", " + ETAG, ETAG));
+        assertTrue(etagMatchesUtil(ETAG + ",\"other\"", ETAG));
+        assertFalse(etagMatchesUtil("\"other\", \"another\"", ETAG));
+    }
+
+    @Test
+    void etagMatches_IgnoringTheWeakPrefix() {
+        assertTrue(etagMatchesUtil("W/" + ETAG, ETAG));
+        assertTrue(etagMatchesUtil("\"other\", W/" + ETAG, ETAG));
+    }
+
+    @Test
+    void etagMatches_Wildcard() {
+        assertTrue(etagMatchesUtil("*", ETAG));
+        assertTrue(etagMatchesUtil("\"other\", *", ETAG));
+    }
+
+    @Test
+    void etagMatches_NeverWithoutBothSides() {
+        assertFalse(etagMatchesUtil(null, ETAG));
+        assertFalse(etagMatchesUtil(ETAG, null));
+        assertFalse(etagMatchesUtil("", ETAG));
+    }
+
+    @Test
+    void etagMatches_OnlyWholeQuotedTags() {
+        assertFalse(etagMatchesUtil("user-1700000000000", ETAG));
+        assertFalse(etagMatchesUtil("\"user-170000000000\"", ETAG));
+    }
+}